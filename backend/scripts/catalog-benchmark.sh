@@ -0,0 +1,39 @@
+#!/usr/bin/env bash
+# Blocking vs non-blocking catalog reads under high concurrency. Starts the packaged
+# backend once against PostgreSQL and drives the JPA endpoints and their /reactive/**
+# counterparts with wrk in turn, reporting requests/sec, latency, and the process's
+# thread count and resident memory after each run.
+#
+# PostgreSQL rather than the default H2 because r2dbc-h2 runs each query on the subscribing
+# (request) thread: against H2 the reactive endpoints block just like the JPA ones and
+# the comparison shows nothing. r2dbc-postgresql does not block.
+#
+# Usage (from backend/, after mvn -Ppostgres package; needs wrk, a high open-files limit
+# and a PostgreSQL database, located with DB_HOST, DB_PORT, DB_NAME, DB_USER, DB_PASSWORD):
+#   scripts/catalog-benchmark.sh [connections] [duration]        # defaults: 5000 30s
+set -euo pipefail
+
+connections=${1:-5000}
+duration=${2:-30s}
+port=${PORT:-8081}
+jar=$(ls target/*.jar | grep -v '\.original$' | head -n 1)
+
+if ! unzip -l "$jar" | grep -q 'r2dbc-postgresql'; then
+    echo "$jar has no PostgreSQL drivers; build it with mvn -Ppostgres package" >&2
+    exit 1
+fi
+
+java -jar "$jar" --spring.profiles.active=prod,postgres --server.port="$port" > /dev/null 2>&1 &
+pid=$!
+trap 'kill "$pid" 2> /dev/null || true' EXIT
+until curl -sf -o /dev/null "http://localhost:$port/products"; do
+    kill -0 "$pid" 2> /dev/null || { echo "backend exited; is PostgreSQL reachable?" >&2; exit 1; }
+    sleep 0.1
+done
+
+for path in /products /reactive/products /shops /reactive/shops /categories /reactive/categories; do
+    echo "== GET $path, $connections connections, $duration"
+    wrk -t8 -c"$connections" -d"$duration" --latency "http://localhost:$port$path" \
+        | grep -E 'Requests/sec|Latency|Socket errors|Non-2xx|  50%|  99%'
+    echo "RSS: $(( $(ps -o rss= -p "$pid") / 1024 )) MB, threads: $(ls /proc/"$pid"/task | wc -l)"
+done
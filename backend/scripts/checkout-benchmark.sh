@@ -0,0 +1,114 @@
+#!/usr/bin/env bash
+# Checkout throughput by order shard count. Starts the packaged backend unsharded, then with 2,
+# 4, ... shards up to [max shards], signs up [users] users each time, and drives POST /orders with
+# wrk, each request placing a one-line order as the next user in turn, reporting requests/sec
+# and latency.
+#
+# Shard 0 is always the backend's own database. The extra shards are the JDBC URLs listed in
+# SHARD_URLS (comma-separated, username sa / password "password" as in
+# application-sharded.properties); for a scale-out measurement these must be separate database
+# servers on separate hosts. Without SHARD_URLS the script starts each extra shard as its own
+# H2 TCP server process on this machine. Those no longer share the backend's JVM, but they do
+# share this host's CPUs and disk, so the numbers stop scaling once the host is saturated and
+# say nothing about adding machines. Every checkout also reserves stock on the main database,
+# which stays a single instance at every shard count.
+#
+# Usage (from backend/, after mvn package; needs wrk and unzip):
+#   scripts/checkout-benchmark.sh [users] [duration] [connections] [max shards]    # defaults: 200 30s 64 4
+#   SHARD_URLS=jdbc:h2:tcp://db1/orders,jdbc:h2:tcp://db2/orders,jdbc:h2:tcp://db3/orders scripts/checkout-benchmark.sh
+set -euo pipefail
+
+users=${1:-200}
+duration=${2:-30s}
+connections=${3:-64}
+max_shards=${4:-4}
+port=${PORT:-8081}
+jar=$(ls target/*.jar | grep -v '\.original$' | head -n 1)
+
+work=$(mktemp -d)
+servers=()
+cleanup() {
+    for server in ${servers[@]+"${servers[@]}"}; do
+        kill "$server" 2> /dev/null || true
+    done
+    rm -rf "$work"
+}
+trap cleanup EXIT
+
+if [ -n "${SHARD_URLS:-}" ]; then
+    IFS=, read -r -a remote_shards <<< "$SHARD_URLS"
+    max_shards=$((${#remote_shards[@]} + 1))
+else
+    # One H2 server process per extra shard, each with its own base directory
+    unzip -j -q -o "$jar" 'BOOT-INF/lib/h2-*.jar' -d "$work"
+    for i in $(seq 1 $((max_shards - 1))); do
+        java -cp "$(ls "$work"/h2-*.jar)" org.h2.tools.Server -tcp -tcpPort $((9100 + i)) -ifNotExists \
+            -baseDir "$work/shard$i" > /dev/null 2>&1 &
+        servers+=($!)
+    done
+fi
+
+cat > "$work/V1000__benchmark_catalog.sql" <<SQL
+INSERT INTO users (first_name, last_name, email, password, role) VALUES ('Shop', 'Owner', 'owner@example.com', 'x', 'USER');
+INSERT INTO shops (name, address, user_id) VALUES ('Benchmark Shop', 'Address', 1);
+INSERT INTO products (name, price, stock_quantity, featured, shop_id)
+SELECT 'Product ' || X, 9.99, 1000000000, FALSE, 1 FROM SYSTEM_RANGE(1, 1000);
+SQL
+
+shards=1
+while [ "$shards" -le "$max_shards" ]; do
+    args=(--server.port="$port" --rate-limit.enabled=false
+          --spring.flyway.locations="classpath:db/migration,filesystem:$work")
+    if [ "$shards" -gt 1 ]; then
+        urls=()
+        for i in $(seq 1 $((shards - 1))); do
+            if [ -n "${SHARD_URLS:-}" ]; then
+                urls+=("${remote_shards[$((i - 1))]}")
+            else
+                # A fresh database per run, so earlier runs' orders don't weigh on this one
+                urls+=("jdbc:h2:tcp://localhost:$((9100 + i))/run$shards")
+            fi
+        done
+        args+=(--spring.profiles.active=sharded --app.sharding.shards="$(IFS=,; echo "${urls[*]}")")
+    fi
+
+    java -jar "$jar" "${args[@]}" > /dev/null 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "http://localhost:$port/products"; do
+        kill -0 "$pid" 2> /dev/null || { echo "backend exited during startup" >&2; exit 1; }
+        sleep 0.1
+    done
+
+    # One token per user, so the orders spread over the shards by user id
+    echo "tokens = {" > "$work/checkout.lua"
+    for i in $(seq "$users"); do
+        curl -sf -o /dev/null -H 'Content-Type: application/json' \
+            -d "{\"firstName\":\"Buyer\",\"lastName\":\"$i\",\"email\":\"buyer$i@example.com\",\"password\":\"benchmark\"}" \
+            "http://localhost:$port/auth/signup"
+        token=$(curl -sf -H 'Content-Type: application/json' \
+            -d "{\"email\":\"buyer$i@example.com\",\"password\":\"benchmark\"}" \
+            "http://localhost:$port/auth/login" | sed -n 's/.*"token":"\([^"]*\)".*/\1/p')
+        echo "  \"$token\"," >> "$work/checkout.lua"
+    done
+    cat >> "$work/checkout.lua" <<'LUA'
+}
+counter = 0
+request = function()
+    counter = counter + 1
+    local body = string.format('{"items":[{"productId":%d,"quantity":1}],"shippingAddress":"Street 1","billingAddress":"Street 1"}',
+        counter % 1000 + 1)
+    return wrk.format("POST", "/orders", {
+        ["Content-Type"] = "application/json",
+        ["Authorization"] = "Bearer " .. tokens[counter % #tokens + 1]
+    }, body)
+end
+LUA
+
+    echo "== $shards shard(s), $users users, $connections connections, $duration"
+    wrk -t4 -c"$connections" -d"$duration" --latency -s "$work/checkout.lua" "http://localhost:$port" \
+        | grep -E 'Requests/sec|Latency|Non-2xx|  50%|  99%'
+
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    shards=$((shards * 2))
+done
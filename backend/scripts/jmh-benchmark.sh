@@ -0,0 +1,11 @@
+#!/usr/bin/env bash
+# Runs the JMH microbenchmarks in src/test/java/com/ecommerce/benchmark, forked on the test
+# classpath. Arguments go to JMH: a benchmark name regex, then options such as -f 1 -wi 3.
+#
+# Usage (from backend/):
+#   scripts/jmh-benchmark.sh JsonSerializationBenchmark
+#   scripts/jmh-benchmark.sh JsonSerializationBenchmark -p products=1000
+set -euo pipefail
+
+mvn -B -q test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+    -Dexec.args="-cp %classpath org.openjdk.jmh.Main $*"
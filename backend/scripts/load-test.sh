@@ -0,0 +1,30 @@
+#!/usr/bin/env bash
+# Throughput and memory under high concurrency, platform threads vs virtual threads.
+# Starts the packaged backend once per mode, drives GET /products with wrk and reports
+# requests/sec, latency and the process's resident memory at the end of the run.
+#
+# Usage (from backend/, after mvn package; needs wrk and a high open-files limit):
+#   scripts/load-test.sh [connections] [duration]        # defaults: 5000 30s
+set -euo pipefail
+
+connections=${1:-5000}
+duration=${2:-30s}
+port=${PORT:-8081}
+jar=$(ls target/*.jar | grep -v '\.original$' | head -n 1)
+
+for virtual in false true; do
+    java -jar "$jar" --spring.profiles.active=prod --server.port="$port" \
+        --app.threads.virtual.enabled="$virtual" > /dev/null 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "http://localhost:$port/products"; do
+        sleep 0.1
+    done
+
+    echo "== app.threads.virtual.enabled=$virtual, $connections connections, $duration"
+    wrk -t8 -c"$connections" -d"$duration" --latency "http://localhost:$port/products" \
+        | grep -E 'Requests/sec|Latency|Socket errors|Non-2xx|  50%|  99%'
+    echo "RSS: $(( $(ps -o rss= -p "$pid") / 1024 )) MB, threads: $(ls /proc/"$pid"/task | wc -l)"
+
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+done
@@ -0,0 +1,35 @@
+#!/usr/bin/env bash
+# Time to first request: starts the backend, polls GET /categories until it answers and
+# reports the elapsed wall-clock time, averaged over several runs.
+#
+# Usage (from backend/, after mvn -Pcds package):
+#   scripts/startup-benchmark.sh [runs] [extra JVM options...]
+#   scripts/startup-benchmark.sh 5                                            # plain
+#   scripts/startup-benchmark.sh 5 -XX:SharedArchiveFile=target/cds/app.jsa   # with the CDS archive
+set -euo pipefail
+
+runs=${1:-5}
+shift || true
+port=${PORT:-8081}
+classpath="target/cds/lib/*"
+
+total=0
+for run in $(seq 1 "$runs"); do
+    start=$(date +%s%N)
+    java "$@" -cp "$classpath" com.ecommerce.EcommerceApplication \
+        --spring.profiles.active=prod --server.port="$port" > /dev/null 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "http://localhost:$port/categories"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "run $run: application exited before answering" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo "run $run: first request answered after ${elapsed} ms"
+    total=$((total + elapsed))
+done
+echo "average: $((total / runs)) ms over $runs runs"
@@ -0,0 +1,47 @@
+package com.ecommerce.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds the executors services use for blocking work (JDBC, disk). By default that is a
+ * bounded pool of named daemon threads; with app.threads.virtual.enabled it is one virtual
+ * thread per task, and concurrency is bounded by the resources the tasks wait on (the
+ * connection pool, the upload disk semaphore) rather than by a thread count.
+ *
+ * CPU-bound work (image resizing) keeps its own platform-thread pool either way.
+ */
+@Component
+public class ExecutorFactory {
+
+    private final boolean virtualThreads;
+
+    public ExecutorFactory(@Value("${app.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public ExecutorService blocking(String name, int workers, int queueCapacity) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory());
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        // CallerRunsPolicy: when the queue is full the submitting thread runs the task itself,
+        // which slows the producer down instead of dropping work
+        return new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
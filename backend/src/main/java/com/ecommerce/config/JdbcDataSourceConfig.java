@@ -0,0 +1,28 @@
+package com.ecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The JDBC pool behind JPA, Flyway and everything else outside /reactive/**.
+ *
+ * Spring Boot stops auto-configuring a DataSource as soon as an R2DBC ConnectionFactory
+ * exists, so the single-database case is declared here; the replica and sharded setups
+ * declare their own (see {@link DataSourceRoutingConfig} and {@link ShardingConfig}).
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class JdbcDataSourceConfig {
+
+    @Bean
+    @ConditionalOnExpression("!${app.datasource.routing.enabled:false} and !${app.sharding.enabled:false}")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+}
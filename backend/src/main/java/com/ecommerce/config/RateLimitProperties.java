@@ -0,0 +1,39 @@
+package com.ecommerce.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Upper bound on tracked buckets per route; idle buckets are evicted first.
+    private int maxBuckets = 100_000;
+
+    private boolean trustForwardedFor = false;
+
+    private List<Route> routes = new ArrayList<>();
+
+    public enum KeyType {
+        USER, IP, USER_OR_IP
+    }
+
+    @Data
+    public static class Route {
+        // Exact path, or a prefix ending in "/**"
+        private String path;
+        // Empty matches every method
+        private String method;
+        private int capacity = 60;
+        private Duration period = Duration.ofMinutes(1);
+        private KeyType key = KeyType.USER_OR_IP;
+    }
+}
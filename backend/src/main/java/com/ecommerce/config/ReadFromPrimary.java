@@ -0,0 +1,16 @@
+package com.ecommerce.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Keeps a read-only method on the primary database. Use for reads that follow the
+ * caller's own writes (e.g. an order right after checkout), where replica lag would
+ * show stale or missing data.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadFromPrimary {
+}
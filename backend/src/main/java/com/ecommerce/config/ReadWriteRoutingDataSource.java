@@ -0,0 +1,42 @@
+package com.ecommerce.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the primary.
+ *
+ * Must sit behind a LazyConnectionDataSourceProxy: the transaction manager asks for a
+ * connection before the read-only flag is bound to the thread, so the real connection
+ * has to be chosen at the first statement, not at transaction begin.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = ThreadLocal.withInitial(() -> false);
+
+    /**
+     * Pins reads on the current thread to the primary (see {@link ReadFromPrimary}).
+     *
+     * @return the previous setting, to be restored when the caller is done
+     */
+    static boolean setPrimaryForced(boolean forced) {
+        boolean previous = PRIMARY_FORCED.get();
+        PRIMARY_FORCED.set(forced);
+        return previous;
+    }
+
+    static boolean isPrimaryForced() {
+        return PRIMARY_FORCED.get();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !isPrimaryForced()
+                ? Route.REPLICA
+                : Route.PRIMARY;
+    }
+}
@@ -2,6 +2,7 @@
 package com.ecommerce.config;
 
 import com.ecommerce.security.JwtTokenFilter;
+import com.ecommerce.security.RateLimitFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -23,9 +24,11 @@ import java.util.Arrays;
 public class SecurityConfig {
 
     private final JwtTokenFilter jwtTokenFilter;
+    private final RateLimitFilter rateLimitFilter;
 
-    public SecurityConfig(JwtTokenFilter jwtTokenFilter) {
+    public SecurityConfig(JwtTokenFilter jwtTokenFilter, RateLimitFilter rateLimitFilter) {
         this.jwtTokenFilter = jwtTokenFilter;
+        this.rateLimitFilter = rateLimitFilter;
     }
 
     @Bean
@@ -38,10 +41,13 @@ public class SecurityConfig {
             .and()
             .authorizeRequests()
                 .antMatchers("/h2-console/**").permitAll()
+                // Operational endpoints (cache stats, every user's orders) need a user whose stored role is ADMIN
+                .antMatchers("/admin/**").hasRole("ADMIN")
                 .antMatchers(HttpMethod.POST, "/auth/login", "/auth/signup").permitAll()
-                .antMatchers(HttpMethod.GET, "/products/**", "/categories/**", "/shops/**").permitAll()
+                .antMatchers(HttpMethod.GET, "/products/**", "/categories/**", "/shops/**", "/home", "/reactive/**").permitAll()
                 .antMatchers("/images/**", "/uploads/**").permitAll()
                 .antMatchers(HttpMethod.POST, "/shops").permitAll()
+                .antMatchers(HttpMethod.POST, "/products/batch").permitAll()
                 .antMatchers(HttpMethod.POST, "/api/upload").permitAll()
                 .anyRequest().authenticated();
 
@@ -50,6 +56,7 @@ public class SecurityConfig {
 
         
         http.addFilterBefore(jwtTokenFilter, UsernamePasswordAuthenticationFilter.class);
+        http.addFilterAfter(rateLimitFilter, JwtTokenFilter.class);
 
         return http.build();
     }
@@ -60,7 +67,7 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:3000"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Requested-With", "X-User-Id", "Cache-Control"));
-        configuration.setExposedHeaders(Arrays.asList("Authorization"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Retry-After", "X-Next-Cursor"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
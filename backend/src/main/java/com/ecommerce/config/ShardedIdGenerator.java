@@ -0,0 +1,30 @@
+package com.ecommerce.config;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.io.Serializable;
+
+/**
+ * Sequence ids that carry the shard they were written to: the shard's own sequence value
+ * times {@link #MAX_SHARDS} plus the shard index, so {@link #shardOf(long)} finds an order
+ * or payment's shard from its id alone. Ids stay well below 2^53 and survive JSON.
+ *
+ * The sequence is read on the current transaction's connection, i.e. on the shard being
+ * written, so increment_size must stay 1: a pooled optimizer would hand out values read
+ * from one shard's sequence to rows on another.
+ */
+public class ShardedIdGenerator extends SequenceStyleGenerator {
+
+    public static final int MAX_SHARDS = 64;
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        long value = ((Number) super.generate(session, object)).longValue();
+        return value * MAX_SHARDS + ShardRoutingDataSource.currentShard();
+    }
+
+    public static int shardOf(long id) {
+        return (int) Math.floorMod(id, (long) MAX_SHARDS);
+    }
+}
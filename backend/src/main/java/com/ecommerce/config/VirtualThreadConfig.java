@@ -0,0 +1,34 @@
+package com.ecommerce.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Runs every servlet request on its own virtual thread instead of Tomcat's bounded worker
+ * pool, enabled with app.threads.virtual.enabled. Requests blocked on JDBC, disk or BCrypt
+ * then cost a small heap object rather than a platform thread; the limits that remain are
+ * server.tomcat.max-connections and the connection pool. See {@link ExecutorFactory} for
+ * the application's own executors.
+ *
+ * Pinning on the JDBC path: H2 2.1 synchronizes on the session, but a session belongs to one
+ * pooled connection and HikariCP hands a connection to one thread at a time, so that monitor
+ * is never contended and no request thread waits inside it. Nothing in the driver or pool
+ * parks while holding a monitor either: with one carrier thread, a pool of 10 and 400
+ * concurrent requests mixing catalog reads, cart writes and checkouts, a JFR recording with
+ * jdk.VirtualThreadPinned at a 0 ms threshold and -Djdk.tracePinnedThreads=full reported no
+ * pinned parks. The application's own locks are ReentrantLocks. This holds for the in-memory
+ * H2 setup measured; repeat the check with those two flags when changing driver or pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadRequestExecutor() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
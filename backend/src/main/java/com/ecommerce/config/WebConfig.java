@@ -1,32 +1,59 @@
 package com.ecommerce.config;
 
-import org.springframework.beans.factory.annotation.Value;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.List;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
-    @Value("${file.upload-dir:uploads}")
-    private String uploadDir;
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    public WebConfig(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
 
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        Path shopUploadDir = Paths.get(uploadDir + "/shops");
-        String shopUploadPath = shopUploadDir.toFile().getAbsolutePath();
-        registry.addResourceHandler("/images/shops/**")
-                .addResourceLocations("file:" + shopUploadPath + "/");
-
-        Path productUploadDir = Paths.get(uploadDir + "/products");
-        String productUploadPath = productUploadDir.toFile().getAbsolutePath();
-        registry.addResourceHandler("/images/products/**")
-                .addResourceLocations("file:" + productUploadPath + "/");
-                
+        // /images/** is served by ImageController.
+        // Files uploaded before storage was consolidated under file.upload-dir:
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:src/main/resources/static/uploads/");
+                .addResourceLocations("file:src/main/resources/static/uploads/")
+                .setCachePeriod(3600)
+                .resourceChain(true);
+    }
+
+    /**
+     * Binary encodings of the same DTOs, for clients sending Accept (or Content-Type)
+     * application/x-jackson-smile or application/cbor. Spring MVC already registers Smile
+     * and CBOR converters once the dataformats are on the classpath, but on plain mappers
+     * without Boot's modules or the ?fields= filter provider; they are swapped in place
+     * for ones built from Spring Boot's builder, so they keep their position after JSON.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        replace(converters, MappingJackson2SmileHttpMessageConverter.class, new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.createXmlMapper(false).factory(new SmileFactory()).build()));
+        replace(converters, MappingJackson2CborHttpMessageConverter.class, new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.createXmlMapper(false).factory(new CBORFactory()).build()));
+    }
+
+    private static void replace(List<HttpMessageConverter<?>> converters, Class<?> type, HttpMessageConverter<?> converter) {
+        int index = -1;
+        for (int i = converters.size() - 1; i >= 0; i--) {
+            if (type.isInstance(converters.get(i))) {
+                converters.remove(i);
+                index = i;
+            }
+        }
+        converters.add(index >= 0 ? index : converters.size(), converter);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.dto.FieldSelection;
+import com.ecommerce.dto.OrderDto;
+import com.ecommerce.model.Order;
+import com.ecommerce.service.OrderService;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Cross-user order listing for operators. Orders are spread over the order shards, so
+ * this queries every shard in parallel and merges the results.
+ */
+@Lazy
+@RestController
+@RequestMapping("/admin/orders")
+public class AdminOrderController {
+
+    private static final int MAX_LIMIT = 200;
+
+    private final OrderService orderService;
+
+    public AdminOrderController(OrderService orderService) {
+        this.orderService = orderService;
+    }
+
+    @GetMapping
+    public ResponseEntity<MappingJacksonValue> getRecentOrders(@RequestParam(required = false) Order.OrderStatus status,
+                                                               @RequestParam(defaultValue = "50") int limit,
+                                                               @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.of(fields, OrderDto.class);
+        List<OrderDto> orders = orderService.getRecentOrders(status, Math.max(1, Math.min(limit, MAX_LIMIT)), selection);
+        return ResponseEntity.ok(selection.apply(orders));
+    }
+}
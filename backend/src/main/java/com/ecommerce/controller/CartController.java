@@ -0,0 +1,85 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.dto.CartDto;
+import com.ecommerce.dto.CartItemDto;
+import com.ecommerce.dto.CheckoutRequestDto;
+import com.ecommerce.dto.OrderDto;
+import com.ecommerce.security.JwtTokenProvider;
+import com.ecommerce.service.CartService;
+import com.ecommerce.service.OrderService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.Valid;
+
+@RestController
+@RequestMapping("/cart")
+public class CartController {
+    
+    private final CartService cartService;
+    private final OrderService orderService;
+    private final JwtTokenProvider jwtTokenProvider;
+    
+    public CartController(CartService cartService, OrderService orderService, JwtTokenProvider jwtTokenProvider) {
+        this.cartService = cartService;
+        this.orderService = orderService;
+        this.jwtTokenProvider = jwtTokenProvider;
+    }
+    
+    @GetMapping
+    public ResponseEntity<CartDto> getCart(HttpServletRequest request) {
+        Long userId = getUserIdFromRequest(request);
+        return ResponseEntity.ok(cartService.getCart(userId));
+    }
+    
+    // Adds to the quantity already in the cart for that product
+    @PostMapping("/items")
+    public ResponseEntity<CartDto> addItem(@Valid @RequestBody CartItemDto item, HttpServletRequest request) {
+        Long userId = getUserIdFromRequest(request);
+        return ResponseEntity.ok(cartService.addItem(userId, item.getProductId(), item.getQuantity()));
+    }
+    
+    // A quantity of 0 removes the line
+    @PutMapping("/items/{productId}")
+    public ResponseEntity<CartDto> updateItem(@PathVariable Long productId, @RequestParam int quantity,
+                                              HttpServletRequest request) {
+        Long userId = getUserIdFromRequest(request);
+        return ResponseEntity.ok(cartService.updateItem(userId, productId, quantity));
+    }
+    
+    @DeleteMapping("/items/{productId}")
+    public ResponseEntity<CartDto> removeItem(@PathVariable Long productId, HttpServletRequest request) {
+        Long userId = getUserIdFromRequest(request);
+        return ResponseEntity.ok(cartService.removeItem(userId, productId));
+    }
+    
+    @DeleteMapping
+    public ResponseEntity<Void> clearCart(HttpServletRequest request) {
+        Long userId = getUserIdFromRequest(request);
+        cartService.clear(userId);
+        return ResponseEntity.noContent().build();
+    }
+    
+    @PostMapping("/checkout")
+    public ResponseEntity<OrderDto> checkout(@Valid @RequestBody CheckoutRequestDto checkout, HttpServletRequest request) {
+        Long userId = getUserIdFromRequest(request);
+        OrderDto order = orderService.createOrderFromCart(userId, checkout.getShippingAddress(), checkout.getBillingAddress());
+        return new ResponseEntity<>(order, HttpStatus.CREATED);
+    }
+    
+    // Helper method to extract user ID from the JWT token
+    private Long getUserIdFromRequest(HttpServletRequest request) {
+        String token = resolveToken(request);
+        return jwtTokenProvider.getUserId(token);
+    }
+    
+    private String resolveToken(HttpServletRequest request) {
+        String bearerToken = request.getHeader("Authorization");
+        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
+            return bearerToken.substring(7);
+        }
+        return null;
+    }
+}
@@ -1,6 +1,8 @@
 package com.ecommerce.controller;
 
 import com.ecommerce.dto.CategoryDto;
+import com.ecommerce.dto.CategoryParentDto;
+import com.ecommerce.dto.CategoryTreeDto;
 import com.ecommerce.service.CategoryService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -31,6 +33,18 @@ public class CategoryController {
         return ResponseEntity.ok(category);
     }
     
+    @GetMapping("/tree")
+    public ResponseEntity<List<CategoryTreeDto>> getCategoryTree() {
+        List<CategoryTreeDto> tree = categoryService.getCategoryTree();
+        return ResponseEntity.ok(tree);
+    }
+    
+    @GetMapping("/{id}/breadcrumb")
+    public ResponseEntity<List<CategoryDto>> getBreadcrumb(@PathVariable Long id) {
+        List<CategoryDto> breadcrumb = categoryService.getBreadcrumb(id);
+        return ResponseEntity.ok(breadcrumb);
+    }
+    
     @PostMapping
     public ResponseEntity<CategoryDto> createCategory(@Valid @RequestBody CategoryDto categoryDto) {
         CategoryDto createdCategory = categoryService.createCategory(categoryDto);
@@ -43,6 +57,12 @@ public class CategoryController {
         return ResponseEntity.ok(updatedCategory);
     }
     
+    @PutMapping("/{id}/parent")
+    public ResponseEntity<CategoryDto> moveCategory(@PathVariable Long id, @RequestBody CategoryParentDto parent) {
+        CategoryDto movedCategory = categoryService.moveCategory(id, parent.getParentId());
+        return ResponseEntity.ok(movedCategory);
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCategory(@PathVariable Long id) {
         categoryService.deleteCategory(id);
@@ -0,0 +1,30 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.dto.HomeDto;
+import com.ecommerce.service.StorefrontService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/home")
+public class HomeController {
+    
+    private final StorefrontService storefrontService;
+    
+    public HomeController(StorefrontService storefrontService) {
+        this.storefrontService = storefrontService;
+    }
+    
+    @GetMapping
+    public ResponseEntity<HomeDto> getHome() {
+        HomeDto home = storefrontService.getHome();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic())
+                .body(home);
+    }
+}
@@ -1,166 +1,147 @@
 
 package com.ecommerce.controller;
 
+import com.ecommerce.exception.InvalidRequestException;
+import com.ecommerce.service.ImageStorageService;
+import com.ecommerce.service.ImageUploadService;
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUploadException;
+import org.apache.commons.fileupload.servlet.ServletFileUpload;
+import org.apache.commons.fileupload.util.Streams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
+import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+// Created on the first upload rather than at startup
+@Lazy
 @RestController
 @CrossOrigin(origins = "http://localhost:3000", allowedHeaders = "*", allowCredentials = "true")
 public class ImageUploadController {
 
-    @Value("${file.upload-dir:uploads}")
-    private String baseUploadDir;
-    
-    private final String STATIC_UPLOAD_DIR = System.getProperty("user.dir") + "/src/main/resources/static/uploads/";
-    
+    private static final Logger log = LoggerFactory.getLogger(ImageUploadController.class);
+
+    private final ImageUploadService imageUploadService;
+    private final long maxRequestSize;
+
+    public ImageUploadController(ImageUploadService imageUploadService,
+                                 @Value("${app.uploads.max-request-size:200MB}") DataSize maxRequestSize) {
+        this.imageUploadService = imageUploadService;
+        this.maxRequestSize = maxRequestSize.toBytes();
+    }
+
     @PostMapping("/api/upload")
     public ResponseEntity<Map<String, String>> uploadImage(
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "type", defaultValue = "general") String type) {
-        
+
         try {
-            System.out.println("Uploading file: " + file.getOriginalFilename() + " of type: " + type);
-            
-            String filename = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-            
-            String subDirectory = "";
-            String urlPrefix = "/uploads/";
-            
-            if ("shop".equals(type)) {
-                subDirectory = "shops/";
-                urlPrefix = "/images/shops/";
-                
-                File shopsDir = new File(baseUploadDir + "/shops");
-                if (!shopsDir.exists()) {
-                    boolean created = shopsDir.mkdirs();
-                    System.out.println("Created shops directory: " + created);
-                }
-                
-                Path shopFilePath = Paths.get(baseUploadDir + "/shops/", filename);
-                Files.copy(file.getInputStream(), shopFilePath, StandardCopyOption.REPLACE_EXISTING);
-                System.out.println("Saved file to: " + shopFilePath);
-            } 
-            else if ("product".equals(type)) {
-                subDirectory = "products/";
-                urlPrefix = "/images/products/";
-                
-                File productsDir = new File(baseUploadDir + "/products");
-                if (!productsDir.exists()) {
-                    productsDir.mkdirs();
-                }
+            log.debug("Uploading file: {} of type: {}", file.getOriginalFilename(), type);
+
+            ImageStorageService.StoredFile stored = imageUploadService.store(file);
 
-                Path productFilePath = Paths.get(baseUploadDir + "/products/", filename);
-                Files.copy(file.getInputStream(), productFilePath, StandardCopyOption.REPLACE_EXISTING);
-            }
-            
-            File baseDirectory = new File(STATIC_UPLOAD_DIR);
-            if (!baseDirectory.exists()) {
-                boolean created = baseDirectory.mkdirs();
-                System.out.println("Created base directory: " + created);
-            }
-            
-            File directory = new File(STATIC_UPLOAD_DIR + subDirectory);
-            if (!directory.exists()) {
-                boolean created = directory.mkdirs();
-                System.out.println("Created subdirectory: " + created);
-            }
-            
-            Path filePath = Paths.get(STATIC_UPLOAD_DIR + subDirectory, filename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-            System.out.println("Saved file to static resources: " + filePath);
-            
             Map<String, String> response = new HashMap<>();
-            response.put("url", "http://localhost:8081" + urlPrefix + filename);
-            
-            System.out.println("Returning URL: " + "http://localhost:8081" + urlPrefix + filename);
+            response.put("url", stored.getUrl());
+
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            e.printStackTrace(); 
+            log.error("Failed to upload image", e);
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
         }
     }
-    
+
+    /**
+     * Parses the multipart body as a stream: each file part is written straight to storage
+     * as it arrives and finished in the background while the next part is read, so the
+     * request is never buffered whole. One bad file doesn't fail the batch; every part gets
+     * its own entry in "results".
+     */
     @PostMapping("/api/upload/multiple")
-    public ResponseEntity<Map<String, Object>> uploadMultipleImages(
-            @RequestParam("files") MultipartFile[] files,
-            @RequestParam(value = "type", defaultValue = "general") String type) {
-        
-        List<String> uploadedUrls = new ArrayList<>();
+    public ResponseEntity<Map<String, Object>> uploadMultipleImages(HttpServletRequest request) {
         Map<String, Object> response = new HashMap<>();
-        
+        if (!ServletFileUpload.isMultipartContent(request)) {
+            response.put("error", "Expected multipart/form-data");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        ServletFileUpload upload = new ServletFileUpload();
+        upload.setSizeMax(maxRequestSize);
+
+        String type = "general";
+        List<String> filenames = new ArrayList<>();
+        List<CompletableFuture<ImageStorageService.StoredFile>> pending = new ArrayList<>();
+        String parseError = null;
         try {
-            for (MultipartFile file : files) {
-                System.out.println("Uploading file: " + file.getOriginalFilename() + " of type: " + type);
-                
-                String filename = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-                
-                String subDirectory = "";
-                String urlPrefix = "/uploads/";
-                
-                if ("shop".equals(type)) {
-                    subDirectory = "shops/";
-                    urlPrefix = "/images/shops/";
-                    
-                    File shopsDir = new File(baseUploadDir + "/shops");
-                    if (!shopsDir.exists()) {
-                        shopsDir.mkdirs();
-                    }
-                    
-                    Path shopFilePath = Paths.get(baseUploadDir + "/shops/", filename);
-                    Files.copy(file.getInputStream(), shopFilePath, StandardCopyOption.REPLACE_EXISTING);
-                } 
-                else if ("product".equals(type)) {
-                    subDirectory = "products/";
-                    urlPrefix = "/images/products/";
-                    
-                    File productsDir = new File(baseUploadDir + "/products");
-                    if (!productsDir.exists()) {
-                        productsDir.mkdirs();
+            FileItemIterator items = upload.getItemIterator(request);
+            while (items.hasNext()) {
+                FileItemStream item = items.next();
+                if (item.isFormField()) {
+                    if ("type".equals(item.getFieldName())) {
+                        try (InputStream in = item.openStream()) {
+                            type = Streams.asString(in, StandardCharsets.UTF_8.name());
+                        }
                     }
-
-                    Path productFilePath = Paths.get(baseUploadDir + "/products/", filename);
-                    Files.copy(file.getInputStream(), productFilePath, StandardCopyOption.REPLACE_EXISTING);
+                    continue;
                 }
-                
-                File baseDirectory = new File(STATIC_UPLOAD_DIR);
-                if (!baseDirectory.exists()) {
-                    baseDirectory.mkdirs();
+                if (!"files".equals(item.getFieldName()) || item.getName() == null || item.getName().isEmpty()) {
+                    continue;
                 }
-                
-                File directory = new File(STATIC_UPLOAD_DIR + subDirectory);
-                if (!directory.exists()) {
-                    directory.mkdirs();
+
+                log.debug("Uploading file: {} of type: {}", item.getName(), type);
+                filenames.add(item.getName());
+                try (InputStream in = item.openStream()) {
+                    pending.add(imageUploadService.storeAsync(in, item.getName()));
+                } catch (InvalidRequestException e) {
+                    pending.add(CompletableFuture.failedFuture(e));
                 }
-                
-                Path filePath = Paths.get(STATIC_UPLOAD_DIR + subDirectory, filename);
-                Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-                
-                String fullUrl = "http://localhost:8081" + urlPrefix + filename;
-                uploadedUrls.add(fullUrl);
             }
-            
-            response.put("urls", uploadedUrls);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            e.printStackTrace(); 
-            response.put("error", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        } catch (FileUploadException | IOException e) {
+            log.warn("Failed to parse multipart upload: {}", e.getMessage());
+            parseError = e.getMessage();
+        }
+
+        List<String> uploadedUrls = new ArrayList<>();
+        List<Map<String, String>> results = new ArrayList<>();
+        for (int i = 0; i < pending.size(); i++) {
+            Map<String, String> result = new HashMap<>();
+            result.put("filename", filenames.get(i));
+            try {
+                String url = pending.get(i).join().getUrl();
+                result.put("url", url);
+                uploadedUrls.add(url);
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.error("Failed to upload image {}", filenames.get(i), cause);
+                result.put("error", cause.getMessage());
+            }
+            results.add(result);
+        }
+
+        response.put("urls", uploadedUrls);
+        response.put("results", results);
+        if (parseError != null) {
+            response.put("error", parseError);
+            return ResponseEntity.badRequest().body(response);
         }
+        return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,13 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.dto.FieldSelection;
 import com.ecommerce.dto.OrderDto;
 import com.ecommerce.model.Order;
 import com.ecommerce.security.JwtTokenProvider;
 import com.ecommerce.service.OrderService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
@@ -24,11 +26,14 @@ public class OrderController {
         this.jwtTokenProvider = jwtTokenProvider;
     }
     
+    // ?fields=orderNumber,status,... returns only those properties; items are loaded only when listed
     @GetMapping
-    public ResponseEntity<List<OrderDto>> getUserOrders(HttpServletRequest request) {
+    public ResponseEntity<MappingJacksonValue> getUserOrders(@RequestParam(required = false) String fields,
+                                                             HttpServletRequest request) {
         Long userId = getUserIdFromRequest(request);
-        List<OrderDto> orders = orderService.getOrdersByUserId(userId);
-        return ResponseEntity.ok(orders);
+        FieldSelection selection = FieldSelection.of(fields, OrderDto.class);
+        List<OrderDto> orders = orderService.getOrdersByUserId(userId, selection);
+        return ResponseEntity.ok(selection.apply(orders));
     }
     
     @GetMapping("/{id}")
@@ -4,6 +4,7 @@ import com.ecommerce.dto.PaymentDto;
 import com.ecommerce.model.Payment;
 import com.ecommerce.security.JwtTokenProvider;
 import com.ecommerce.service.PaymentService;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -11,6 +12,8 @@ import org.springframework.web.bind.annotation.*;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 
+// Payments are a small share of traffic; the bean is created on the first payment request
+@Lazy
 @RestController
 @RequestMapping("/payments")
 public class PaymentController {
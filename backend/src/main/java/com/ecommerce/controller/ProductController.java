@@ -1,10 +1,14 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.dto.FieldSelection;
 import com.ecommerce.dto.ProductDto;
 import com.ecommerce.security.JwtTokenProvider;
 import com.ecommerce.service.ProductService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
@@ -15,6 +19,8 @@ import java.util.List;
 @RequestMapping("/products")
 public class ProductController {
     
+    private static final Logger log = LoggerFactory.getLogger(ProductController.class);
+    
     private final ProductService productService;
     private final JwtTokenProvider jwtTokenProvider;
     
@@ -23,10 +29,28 @@ public class ProductController {
         this.jwtTokenProvider = jwtTokenProvider;
     }
     
+    // ?fields=name,price,... returns (and queries) only those properties; id is always included
     @GetMapping
-    public ResponseEntity<List<ProductDto>> getAllProducts() {
-        List<ProductDto> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<MappingJacksonValue> getAllProducts(@RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.of(fields, ProductDto.class);
+        List<ProductDto> products = productService.getAllProducts(selection);
+        return ResponseEntity.ok(selection.apply(products));
+    }
+    
+    // Prices and stock for a whole cart in one request, e.g. /products/batch?ids=3,7,12&fields=price,stockQuantity
+    @GetMapping("/batch")
+    public ResponseEntity<MappingJacksonValue> getProductsByIds(@RequestParam List<Long> ids,
+                                                                @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.of(fields, ProductDto.class);
+        List<ProductDto> products = productService.getProductsByIds(ids, selection);
+        return ResponseEntity.ok(selection.apply(products));
+    }
+    
+    // Same as GET /products/batch with the ids as a JSON array body, for carts too large for a query string
+    @PostMapping("/batch")
+    public ResponseEntity<MappingJacksonValue> getProductsByIdsFromBody(@RequestBody List<Long> ids,
+                                                                        @RequestParam(required = false) String fields) {
+        return getProductsByIds(ids, fields);
     }
     
     @GetMapping("/{id}")
@@ -36,21 +60,28 @@ public class ProductController {
     }
     
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<ProductDto>> getProductsByCategory(@PathVariable Long categoryId) {
-        List<ProductDto> products = productService.getProductsByCategory(categoryId);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<MappingJacksonValue> getProductsByCategory(
+            @PathVariable Long categoryId,
+            @RequestParam(defaultValue = "true") boolean includeDescendants,
+            @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.of(fields, ProductDto.class);
+        List<ProductDto> products = productService.getProductsByCategory(categoryId, includeDescendants, selection);
+        return ResponseEntity.ok(selection.apply(products));
     }
     
     @GetMapping("/featured")
-    public ResponseEntity<List<ProductDto>> getFeaturedProducts() {
-        List<ProductDto> products = productService.getFeaturedProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<MappingJacksonValue> getFeaturedProducts(@RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.of(fields, ProductDto.class);
+        List<ProductDto> products = productService.getFeaturedProducts(selection);
+        return ResponseEntity.ok(selection.apply(products));
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<ProductDto>> searchProducts(@RequestParam String keyword) {
-        List<ProductDto> products = productService.searchProducts(keyword);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<MappingJacksonValue> searchProducts(@RequestParam String keyword,
+                                                              @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.of(fields, ProductDto.class);
+        List<ProductDto> products = productService.searchProducts(keyword, selection);
+        return ResponseEntity.ok(selection.apply(products));
     }
     
     @PostMapping
@@ -75,15 +106,16 @@ public class ProductController {
     }
 
     @GetMapping("/shop/{shopId}")
-    public ResponseEntity<List<ProductDto>> getProductsByShop(@PathVariable Long shopId) {
+    public ResponseEntity<MappingJacksonValue> getProductsByShop(@PathVariable Long shopId,
+                                                                 @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.of(fields, ProductDto.class);
         try {
-            List<ProductDto> products = productService.getProductsByShop(shopId);
-            return ResponseEntity.ok(products);
+            List<ProductDto> products = productService.getProductsByShop(shopId, selection);
+            return ResponseEntity.ok(selection.apply(products));
         } catch (Exception e) {
-            // Log the error for debugging
-            System.err.println("Error fetching products for shop " + shopId + ": " + e.getMessage());
+            log.warn("Error fetching products for shop {}: {}", shopId, e.getMessage());
             // Return empty list instead of error to avoid client-side issues
-            return ResponseEntity.ok(List.of());
+            return ResponseEntity.ok(selection.apply(List.of()));
         }
     }
 
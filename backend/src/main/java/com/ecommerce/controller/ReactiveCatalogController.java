@@ -0,0 +1,71 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.dto.CategoryDto;
+import com.ecommerce.dto.ProductDto;
+import com.ecommerce.dto.ShopDto;
+import com.ecommerce.service.ReactiveCatalogService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only catalog served from {@link ReactiveCatalogService}. Lists are streamed as
+ * newline-delimited JSON by default, one DTO per line; clients sending Accept:
+ * application/json get a single array instead. Writes stay on /products, /shops and
+ * /categories.
+ *
+ * Spring MVC subscribes to the returned Flux or Mono on the request thread. Whether that
+ * thread is then released depends on the driver: r2dbc-h2, the default, runs each query
+ * synchronously inside the subscribe call, so with H2 the request thread stays busy for
+ * the whole query just as it does on the JPA endpoints. Only a network driver such as
+ * r2dbc-postgresql (the postgres profile) hands the thread back while rows are fetched.
+ */
+@RestController
+@RequestMapping("/reactive")
+public class ReactiveCatalogController {
+
+    private final ReactiveCatalogService reactiveCatalogService;
+
+    public ReactiveCatalogController(ReactiveCatalogService reactiveCatalogService) {
+        this.reactiveCatalogService = reactiveCatalogService;
+    }
+
+    @GetMapping(value = "/products", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    public Flux<ProductDto> getAllProducts() {
+        return reactiveCatalogService.getAllProducts();
+    }
+
+    @GetMapping(value = "/products/featured", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    public Flux<ProductDto> getFeaturedProducts() {
+        return reactiveCatalogService.getFeaturedProducts();
+    }
+
+    @GetMapping(value = "/products/shop/{shopId}", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    public Flux<ProductDto> getProductsByShop(@PathVariable Long shopId) {
+        return reactiveCatalogService.getProductsByShop(shopId);
+    }
+
+    @GetMapping("/products/{id}")
+    public Mono<ProductDto> getProductById(@PathVariable Long id) {
+        return reactiveCatalogService.getProductById(id);
+    }
+
+    @GetMapping(value = "/shops", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    public Flux<ShopDto> getAllShops() {
+        return reactiveCatalogService.getAllShops();
+    }
+
+    @GetMapping("/shops/{id}")
+    public Mono<ShopDto> getShopById(@PathVariable Long id) {
+        return reactiveCatalogService.getShopById(id);
+    }
+
+    @GetMapping(value = "/categories", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    public Flux<CategoryDto> getAllCategories() {
+        return reactiveCatalogService.getAllCategories();
+    }
+}
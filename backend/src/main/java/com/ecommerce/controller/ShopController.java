@@ -1,11 +1,18 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.dto.FieldSelection;
 import com.ecommerce.dto.ShopDto;
+import com.ecommerce.dto.StorefrontDto;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.security.JwtTokenProvider;
 import com.ecommerce.service.ShopService;
+import com.ecommerce.service.StorefrontService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import java.util.Map;
@@ -16,23 +23,45 @@ import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import java.util.List;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/shops")
 public class ShopController {
     
+    private static final Logger log = LoggerFactory.getLogger(ShopController.class);
+    
     private final ShopService shopService;
+    private final StorefrontService storefrontService;
     private final JwtTokenProvider jwtTokenProvider;
     
-    public ShopController(ShopService shopService, JwtTokenProvider jwtTokenProvider) {
+    public ShopController(ShopService shopService, StorefrontService storefrontService, JwtTokenProvider jwtTokenProvider) {
         this.shopService = shopService;
+        this.storefrontService = storefrontService;
         this.jwtTokenProvider = jwtTokenProvider;
     }
     
+    // Without after or size this is every shop, as before paging was added; with either it is
+    // one page of at most size shops
     @GetMapping
-    public ResponseEntity<List<ShopDto>> getAllShops() {
-        List<ShopDto> shops = shopService.getAllShops();
-        return ResponseEntity.ok(shops);
+    public ResponseEntity<MappingJacksonValue> getAllShops(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "false") boolean includeProductCount,
+            @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.of(fields, ShopDto.class);
+        Integer pageSize = after == null && size == null
+                ? null
+                : ShopService.directoryPageSize(size != null ? size : ShopService.DEFAULT_DIRECTORY_PAGE_SIZE);
+        List<ShopDto> shops = shopService.getShopDirectoryPage(after, pageSize, q, includeProductCount, selection);
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        // A full page means there may be more; the client passes this back as ?after=
+        if (pageSize != null && !shops.isEmpty() && shops.size() >= pageSize) {
+            response.header("X-Next-Cursor", String.valueOf(shops.get(shops.size() - 1).getId()));
+        }
+        return response.body(selection.apply(shops));
     }
     
     @GetMapping("/{id}")
@@ -41,17 +70,26 @@ public class ShopController {
         return ResponseEntity.ok(shop);
     }
     
+    // Shop, its products and the category list in one response for the shop page
+    @GetMapping("/{id}/storefront")
+    public ResponseEntity<StorefrontDto> getStorefront(@PathVariable Long id) {
+        StorefrontDto storefront = storefrontService.getStorefront(id);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic())
+                .body(storefront);
+    }
+    
     @GetMapping("/my-shop")
     public ResponseEntity<?> getMyShop(HttpServletRequest request) {
         try {
             Long userId = getUserIdFromRequest(request);
-            System.out.println("Getting shop for user ID: " + userId);
+            log.debug("Getting shop for user ID: {}", userId);
             ShopDto shop = shopService.getShopByOwnerId(userId);
             return ResponseEntity.ok(shop);
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.ok(Map.of("message", "No shop exists for this user", "shopExists", false));
         } catch (Exception e) {
-            System.out.println("Error in getMyShop: " + e.getMessage());
+            log.error("Error in getMyShop", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
@@ -60,8 +98,7 @@ public class ShopController {
     public ResponseEntity<?> createShop(@Valid @RequestBody ShopDto shopDto, HttpServletRequest request) {
         try {
     
-            System.out.println("Received shop creation request with data: " + shopDto);
-            System.out.println("ownerId in request: " + shopDto.getOwnerId());
+            log.debug("Received shop creation request with data: {}", shopDto);
             
      
             Long userId = shopDto.getOwnerId(); 
@@ -72,9 +109,9 @@ public class ShopController {
                 if (userIdHeader != null && !userIdHeader.isEmpty()) {
                     try {
                         userId = Long.parseLong(userIdHeader);
-                        System.out.println("Using userId from header: " + userId);
+                        log.debug("Using userId from header: {}", userId);
                     } catch (NumberFormatException e) {
-                        System.out.println("Invalid X-User-Id header");
+                        log.debug("Invalid X-User-Id header");
                     }
                 }
             }
@@ -82,17 +119,15 @@ public class ShopController {
             if (userId == null) {
 
                 userId = getUserIdFromRequest(request);
-                System.out.println("Using userId from JWT: " + userId);
+                log.debug("Using userId from JWT: {}", userId);
             }
             
-            System.out.println("Final userId being used: " + userId);
             
 
             ShopDto createdShop = shopService.createShop(shopDto, userId);
             return new ResponseEntity<>(createdShop, HttpStatus.CREATED);
         } catch (Exception e) {
-            System.out.println("Error in create shop: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error in create shop", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("message", "Failed to create shop: " + e.getMessage()));
         }
@@ -125,11 +160,11 @@ public class ShopController {
             Map<String, String> result = shopService.uploadShopLogo(id, file);
             return ResponseEntity.ok(result);
         } catch (IOException e) {
-            e.printStackTrace();
+            log.error("Failed to upload logo for shop {}", id, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("message", "Failed to upload logo: " + e.getMessage()));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error uploading logo for shop {}", id, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("message", "Error: " + e.getMessage()));
         }
@@ -141,7 +176,7 @@ public class ShopController {
             try {
                 return jwtTokenProvider.getUserId(token);
             } catch (Exception e) {
-                System.err.println("Error extracting user ID from token: " + e.getMessage());
+                log.debug("Error extracting user ID from token: {}", e.getMessage());
             }
         }
         
@@ -150,7 +185,7 @@ public class ShopController {
             try {
                 return Long.parseLong(userIdHeader);
             } catch (NumberFormatException e) {
-                System.err.println("Invalid X-User-Id header: " + e.getMessage());
+                log.debug("Invalid X-User-Id header: {}", e.getMessage());
             }
         }
         
@@ -0,0 +1,30 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemDto {
+    @NotNull(message = "Product ID is required")
+    private Long productId;
+    
+    private String productName;
+    
+    private String imageUrl;
+    
+    // Price when the line last changed; checkout charges the current price
+    private BigDecimal unitPrice;
+    
+    @NotNull(message = "Quantity is required")
+    @Positive(message = "Quantity must be positive")
+    private Integer quantity;
+    
+    private BigDecimal subtotal;
+}
@@ -19,4 +19,14 @@ public class CategoryDto {
     
     @Size(max = 200, message = "Description cannot exceed 200 characters")
     private String description;
+    
+    private Long parentId;
+    
+    // Set by the server, e.g. "/1/5/"
+    private String path;
+    
+    private int depth;
+    
+    // Maintained by CategoryCatalog; ignored on create and update
+    private long productCount;
 }
\ No newline at end of file
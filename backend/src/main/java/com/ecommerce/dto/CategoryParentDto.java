@@ -0,0 +1,15 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Body of PUT /categories/{id}/parent. A null parentId makes the category a root.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryParentDto {
+    private Long parentId;
+}
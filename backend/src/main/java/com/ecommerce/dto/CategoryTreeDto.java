@@ -0,0 +1,24 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryTreeDto {
+    private Long id;
+    
+    private String name;
+    
+    private long productCount;
+    
+    // Products in this category and all of its descendants
+    private long subtreeProductCount;
+    
+    private List<CategoryTreeDto> children = new ArrayList<>();
+}
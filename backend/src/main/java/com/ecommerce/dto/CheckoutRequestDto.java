@@ -0,0 +1,18 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutRequestDto {
+    @NotBlank(message = "Shipping address is required")
+    private String shippingAddress;
+    
+    @NotBlank(message = "Billing address is required")
+    private String billingAddress;
+}
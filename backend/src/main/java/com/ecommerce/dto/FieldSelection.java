@@ -0,0 +1,95 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.exception.InvalidRequestException;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The DTO properties a client asked for with ?fields=, e.g. fields=name,price,imageUrl.
+ * A missing or empty parameter selects every property, and id is always included.
+ *
+ * List services use the selection to query only the columns behind the requested
+ * properties, and {@link #apply(Object)} drops the rest from the response. DTOs that
+ * support it are annotated with @JsonFilter({@link #FILTER}).
+ */
+public final class FieldSelection {
+
+    public static final String FILTER = "fields";
+
+    private static final FieldSelection ALL = new FieldSelection(null);
+
+    // null means every property
+    private final Set<String> properties;
+
+    private FieldSelection(Set<String> properties) {
+        this.properties = properties;
+    }
+
+    public static FieldSelection all() {
+        return ALL;
+    }
+
+    /**
+     * Parses a comma-separated ?fields= value, rejecting names that aren't properties of
+     * {@code dtoType}.
+     */
+    public static FieldSelection of(String fields, Class<?> dtoType) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<String> known = Arrays.stream(dtoType.getDeclaredFields())
+                .filter(field -> !Modifier.isStatic(field.getModifiers()))
+                .map(Field::getName)
+                .collect(Collectors.toSet());
+
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        for (String name : fields.split(",")) {
+            String property = name.trim();
+            if (property.isEmpty()) {
+                continue;
+            }
+            if (!known.contains(property)) {
+                throw new InvalidRequestException("Unknown field '" + property + "'");
+            }
+            selected.add(property);
+        }
+        return new FieldSelection(Collections.unmodifiableSet(selected));
+    }
+
+    public boolean isAll() {
+        return properties == null;
+    }
+
+    public boolean includes(String property) {
+        return properties == null || properties.contains(property);
+    }
+
+    /**
+     * The selected properties; only meaningful when {@link #isAll()} is false.
+     */
+    public Set<String> getProperties() {
+        return properties;
+    }
+
+    /**
+     * Wraps a response body so only the selected properties are written.
+     */
+    public MappingJacksonValue apply(Object body) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (properties != null) {
+            value.setFilters(new SimpleFilterProvider()
+                    .addFilter(FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(properties)));
+        }
+        return value;
+    }
+}
@@ -1,6 +1,7 @@
 package com.ecommerce.dto;
 
 import com.ecommerce.model.Order;
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,6 +16,7 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonFilter(FieldSelection.FILTER)
 public class OrderDto {
     private Long id;
     private String orderNumber;
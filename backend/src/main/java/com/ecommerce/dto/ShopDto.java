@@ -1,5 +1,7 @@
 package com.ecommerce.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,6 +12,7 @@ import javax.validation.constraints.Size;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonFilter(FieldSelection.FILTER)
 public class ShopDto {
     private Long id;
     
@@ -29,4 +32,14 @@ public class ShopDto {
     private Long ownerId;
     
     private String ownerName;
+
+    // Only filled by the shop directory when requested; left out of the JSON otherwise
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long productCount;
+
+    // Used by the shop directory projection queries
+    public ShopDto(Long id, String name, String description, String address, String logoUrl,
+                   Long ownerId, String ownerName) {
+        this(id, name, description, address, logoUrl, ownerId, ownerName, null);
+    }
 }
\ No newline at end of file
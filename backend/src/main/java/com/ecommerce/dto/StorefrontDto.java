@@ -0,0 +1,18 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StorefrontDto {
+    private ShopDto shop;
+    
+    private List<ProductDto> products;
+    
+    private List<CategoryDto> categories;
+}
@@ -3,10 +3,24 @@ package com.ecommerce.exception;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+import java.util.List;
+
 @ResponseStatus(HttpStatus.BAD_REQUEST)
 public class InvalidRequestException extends RuntimeException {
     
+    // One entry per offending item, returned as ErrorResponse.errors
+    private final List<String> errors;
+    
     public InvalidRequestException(String message) {
+        this(message, null);
+    }
+    
+    public InvalidRequestException(String message, List<String> errors) {
         super(message);
+        this.errors = errors;
+    }
+    
+    public List<String> getErrors() {
+        return errors;
     }
-}
\ No newline at end of file
+}
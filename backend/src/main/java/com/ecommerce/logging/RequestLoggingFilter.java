@@ -0,0 +1,69 @@
+package com.ecommerce.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Emits one structured summary line per request (route, status, latency,
+ * query count) and marks a sampled fraction of requests for debug-level detail.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestLoggingFilter extends OncePerRequestFilter {
+
+    static final String SAMPLED_MDC_KEY = "sampled";
+    static final String SAMPLED_VALUE = "true";
+
+    private static final Logger log = LoggerFactory.getLogger("com.ecommerce.request");
+
+    @Value("${app.logging.debug-sample-rate:0.0}")
+    private double debugSampleRate;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        long start = System.nanoTime();
+        QueryCountInspector.reset();
+        boolean sampled = debugSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < debugSampleRate;
+        if (sampled) {
+            MDC.put(SAMPLED_MDC_KEY, SAMPLED_VALUE);
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (log.isInfoEnabled()) {
+                log.info("method={} route={} status={} latencyUs={} queries={}",
+                        request.getMethod(),
+                        route(request),
+                        response.getStatus(),
+                        (System.nanoTime() - start) / 1_000,
+                        QueryCountInspector.get());
+            }
+            if (sampled) {
+                MDC.remove(SAMPLED_MDC_KEY);
+            }
+            StartupTimer.requestCompleted();
+        }
+    }
+
+    private String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : request.getRequestURI();
+    }
+}
@@ -0,0 +1,31 @@
+package com.ecommerce.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Lets DEBUG events from application loggers through for requests that
+ * {@link RequestLoggingFilter} picked for sampling, regardless of the
+ * configured level. Everything else falls through to the normal level check.
+ */
+public class SampledDebugTurboFilter extends TurboFilter {
+
+    private static final String APP_LOGGER_PREFIX = "com.ecommerce";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level == null || level.isGreaterOrEqual(Level.INFO)) {
+            return FilterReply.NEUTRAL;
+        }
+        if (!logger.getName().startsWith(APP_LOGGER_PREFIX)) {
+            return FilterReply.NEUTRAL;
+        }
+        return RequestLoggingFilter.SAMPLED_VALUE.equals(MDC.get(RequestLoggingFilter.SAMPLED_MDC_KEY))
+                ? FilterReply.ACCEPT
+                : FilterReply.NEUTRAL;
+    }
+}
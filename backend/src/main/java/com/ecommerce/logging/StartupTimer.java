@@ -0,0 +1,46 @@
+package com.ecommerce.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Logs how long after JVM start the application became ready and answered its first
+ * request. With app.startup.exit-on-ready the application shuts down as soon as it is
+ * ready, which is how the CDS training run (mvn -Pcds package) records its class list.
+ */
+@Component
+public class StartupTimer implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger("com.ecommerce.startup");
+
+    private static final AtomicBoolean firstRequestLogged = new AtomicBoolean();
+
+    @Value("${app.startup.exit-on-ready:false}")
+    private boolean exitOnReady;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        log.info("startup readyMs={}", sinceJvmStart());
+        if (exitOnReady) {
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+
+    static void requestCompleted() {
+        if (!firstRequestLogged.get() && firstRequestLogged.compareAndSet(false, true)) {
+            log.info("startup firstRequestMs={}", sinceJvmStart());
+        }
+    }
+
+    private static long sinceJvmStart() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A user's server-side cart. The lines are separate {@link CartItem} rows with no mapped
+ * collection here, so changing one line never loads the others.
+ */
+@Entity
+@Table(name = "carts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Cart {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // A plain column rather than a User association: loading a cart never touches users
+    @Column(name = "user_id", nullable = false, unique = true)
+    private Long userId;
+
+    // Kept in step with the lines by CartService on every change, never summed on read
+    @Column(nullable = false)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    private int itemCount;
+
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,81 @@
+package com.ecommerce.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * One cart line, keyed by cart and product. Price, name and image are a snapshot taken
+ * when the line last changed.
+ */
+@Entity
+@Table(name = "cart_items")
+@IdClass(CartItem.Key.class)
+@Data
+@NoArgsConstructor
+public class CartItem implements Persistable<CartItem.Key> {
+
+    @Id
+    @Column(name = "cart_id")
+    private Long cartId;
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    private int quantity;
+
+    @Column(nullable = false)
+    private BigDecimal unitPrice;
+
+    private String productName;
+
+    private String imageUrl;
+
+    // Lines are inserted once and then changed with bulk updates, so save() can insert
+    // without first selecting to see whether the row exists
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private boolean persisted;
+
+    public CartItem(Long cartId, Long productId, int quantity, BigDecimal unitPrice, String productName, String imageUrl) {
+        this.cartId = cartId;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+        this.productName = productName;
+        this.imageUrl = imageUrl;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(cartId, productId);
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markPersisted() {
+        this.persisted = true;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long cartId;
+        private Long productId;
+    }
+}
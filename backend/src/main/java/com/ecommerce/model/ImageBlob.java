@@ -0,0 +1,47 @@
+package com.ecommerce.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "image_blobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageBlob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Hex SHA-256 of the file content
+    @Column(nullable = false, unique = true, length = 64)
+    private String hash;
+
+    // Public path under /images/, e.g. /images/objects/ab/ab12...ef.png
+    @Column(nullable = false)
+    private String path;
+
+    private long size;
+
+    // Number of Product.imageUrl, Product.additionalImages and Shop.logoUrl values pointing at this blob
+    private int refCount;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -2,7 +2,12 @@ package com.ecommerce.model;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.math.BigDecimal;
@@ -11,24 +16,32 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_user_id", columnList = "user_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Order {
 
+    // Carries the order's shard, see ShardedIdGenerator
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "order_ids")
+    @GenericGenerator(name = "order_ids", strategy = "com.ecommerce.config.ShardedIdGenerator", parameters = {
+            @Parameter(name = "sequence_name", value = "order_ids"),
+            @Parameter(name = "increment_size", value = "1")
+    })
     private Long id;
     
     @Column(unique = true)
     private String orderNumber;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
     
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     private List<OrderItem> items = new ArrayList<>();
     
     @Enumerated(EnumType.STRING)
@@ -55,7 +68,9 @@ public class Order {
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
         this.status = OrderStatus.PENDING;
-        this.orderNumber = generateOrderNumber();
+        if (this.orderNumber == null) {
+            this.orderNumber = generateOrderNumber();
+        }
     }
     
     @PreUpdate
@@ -2,7 +2,11 @@ package com.ecommerce.model;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -16,18 +20,30 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 public class OrderItem {
 
+    // Carries the item's shard, see ShardedIdGenerator
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "order_item_ids")
+    @GenericGenerator(name = "order_item_ids", strategy = "com.ecommerce.config.ShardedIdGenerator", parameters = {
+            @Parameter(name = "sequence_name", value = "order_item_ids"),
+            @Parameter(name = "increment_size", value = "1")
+    })
     private Long id;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Order order;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Product product;
     
+    // Copied at checkout: order shards hold no product rows to join against
+    private String productName;
+    
     @NotNull
     @Positive
     private Integer quantity;
@@ -2,7 +2,11 @@ package com.ecommerce.model;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.math.BigDecimal;
@@ -15,12 +19,19 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Payment {
 
+    // Carries the payment's shard, see ShardedIdGenerator
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "payment_ids")
+    @GenericGenerator(name = "payment_ids", strategy = "com.ecommerce.config.ShardedIdGenerator", parameters = {
+            @Parameter(name = "sequence_name", value = "payment_ids"),
+            @Parameter(name = "increment_size", value = "1")
+    })
     private Long id;
     
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Order order;
     
     private BigDecimal amount;
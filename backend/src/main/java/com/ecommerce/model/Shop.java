@@ -2,7 +2,11 @@ package com.ecommerce.model;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -13,6 +17,8 @@ import java.util.List;
 
 @Entity
 @Table(name = "shops")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -36,8 +42,10 @@ public class Shop {
 
     private String logoUrl;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = true)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User owner;
 
     @OneToMany(mappedBy = "shop", cascade = CascadeType.ALL)
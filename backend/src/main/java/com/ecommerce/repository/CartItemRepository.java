@@ -0,0 +1,34 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.CartItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface CartItemRepository extends JpaRepository<CartItem, CartItem.Key> {
+
+    List<CartItem> findByCartId(Long cartId);
+
+    // Line changes are primary-key writes; nothing is loaded into the session first
+    @Modifying
+    @Query("UPDATE CartItem i SET i.quantity = :quantity, i.unitPrice = :unitPrice, " +
+           "i.productName = :productName, i.imageUrl = :imageUrl " +
+           "WHERE i.cartId = :cartId AND i.productId = :productId")
+    int updateLine(@Param("cartId") Long cartId, @Param("productId") Long productId,
+                   @Param("quantity") int quantity, @Param("unitPrice") BigDecimal unitPrice,
+                   @Param("productName") String productName, @Param("imageUrl") String imageUrl);
+
+    @Modifying
+    @Query("DELETE FROM CartItem i WHERE i.cartId = :cartId AND i.productId = :productId")
+    int deleteLine(@Param("cartId") Long cartId, @Param("productId") Long productId);
+
+    @Modifying
+    @Query("DELETE FROM CartItem i WHERE i.cartId = :cartId")
+    int deleteByCart(@Param("cartId") Long cartId);
+}
@@ -0,0 +1,25 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.Cart;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface CartRepository extends JpaRepository<Cart, Long> {
+
+    Optional<Cart> findByUserId(Long userId);
+
+    // CartService already holds the new totals, so this is a single write with no read first
+    @Modifying
+    @Query("UPDATE Cart c SET c.totalAmount = :totalAmount, c.itemCount = :itemCount, c.updatedAt = :updatedAt " +
+           "WHERE c.id = :id")
+    int updateTotals(@Param("id") Long id, @Param("totalAmount") BigDecimal totalAmount,
+                     @Param("itemCount") int itemCount, @Param("updatedAt") LocalDateTime updatedAt);
+}
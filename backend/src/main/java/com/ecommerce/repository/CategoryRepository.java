@@ -2,11 +2,35 @@ package com.ecommerce.repository;
 
 import com.ecommerce.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
 import java.util.Optional;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "query.categoryByName")
+    })
     Optional<Category> findByName(String name);
+
+    // Rewrites the path prefix and depth of a category and all of its descendants after a move
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Category c SET c.path = CONCAT(:newPrefix, SUBSTRING(c.path, :oldPrefixLength + 1)), " +
+           "c.depth = c.depth + :depthDelta WHERE c.path LIKE CONCAT(:oldPrefix, '%')")
+    int movePaths(@Param("oldPrefix") String oldPrefix, @Param("oldPrefixLength") int oldPrefixLength,
+                  @Param("newPrefix") String newPrefix, @Param("depthDelta") int depthDelta);
+
+    // Categories created before the hierarchy existed are roots
+    @Transactional
+    @Modifying
+    @Query("UPDATE Category c SET c.path = CONCAT('/', c.id, '/'), c.depth = 0 WHERE c.path IS NULL")
+    int backfillRootPaths();
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.ecommerce.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tuple queries behind ?fields= listings: maps DTO property names to entity attributes and
+ * selects only the ones requested, so unrequested columns are never read and no entities
+ * (or their eager associations) are loaded. Properties without a column here are left to
+ * the caller.
+ */
+class FieldProjection<E> {
+
+    interface Column<E> {
+        Expression<?> select(Root<E> root, CriteriaQuery<?> query, CriteriaBuilder cb);
+    }
+
+    private final Class<E> entityType;
+    private final Map<String, Column<E>> columns = new LinkedHashMap<>();
+
+    FieldProjection(Class<E> entityType) {
+        this.entityType = entityType;
+    }
+
+    FieldProjection<E> column(String property, Column<E> column) {
+        columns.put(property, column);
+        return this;
+    }
+
+    FieldProjection<E> column(String property, String attribute) {
+        return column(property, (root, query, cb) -> root.get(attribute));
+    }
+
+    /**
+     * One map per row, keyed by DTO property; id is always selected. A limit of 0 or less
+     * returns every matching row.
+     */
+    List<Map<String, Object>> find(EntityManager entityManager, Collection<String> properties,
+                                   Specification<E> where, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<E> root = query.from(entityType);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(root.get("id").alias("id"));
+        for (Map.Entry<String, Column<E>> column : columns.entrySet()) {
+            if (properties.contains(column.getKey())) {
+                selections.add(column.getValue().select(root, query, cb).alias(column.getKey()));
+            }
+        }
+        query.multiselect(selections);
+        if (where != null) {
+            query.where(where.toPredicate(root, query, cb));
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+
+        TypedQuery<Tuple> typed = entityManager.createQuery(query);
+        if (limit > 0) {
+            typed.setMaxResults(limit);
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : typed.getResultList()) {
+            Map<String, Object> row = new HashMap<>();
+            for (TupleElement<?> element : tuple.getElements()) {
+                row.put(element.getAlias(), tuple.get(element));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.ImageBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, Long> {
+    Optional<ImageBlob> findByHash(String hash);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.refCount = b.refCount + :delta, b.updatedAt = :now " +
+           "WHERE b.hash = :hash AND b.refCount + :delta >= 0")
+    int adjustRefCount(@Param("hash") String hash, @Param("delta") int delta, @Param("now") LocalDateTime now);
+
+    // Succeeds only if nothing references the blob and its count hasn't moved since the cutoff
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ImageBlob b WHERE b.hash = :hash AND b.refCount = 0 AND b.updatedAt < :cutoff")
+    int deleteUnreferenced(@Param("hash") String hash, @Param("cutoff") LocalDateTime cutoff);
+}
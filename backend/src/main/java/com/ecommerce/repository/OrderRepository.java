@@ -1,14 +1,38 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.model.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
-    List<Order> findByUserId(Long userId);
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
+    // OrderDto reads every item; product id and name are columns of order_items, so products (which
+    // order shards don't hold) are never joined. The payment is an eager inverse one-to-one, so it
+    // is joined here rather than loaded with one extra select per order.
+    @EntityGraph(attributePaths = {"items", "payment"})
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    @Query("SELECT DISTINCT o FROM Order o WHERE o.user.id = :userId")
+    List<Order> findByUserId(@Param("userId") Long userId);
+
+    @EntityGraph(attributePaths = {"items", "payment"})
+    Optional<Order> findWithItemsById(Long id);
+
+    @EntityGraph(attributePaths = {"items", "payment"})
     Optional<Order> findByOrderNumber(String orderNumber);
-}
\ No newline at end of file
+
+    // Admin listings are paged, so items are batch-fetched rather than joined
+    @EntityGraph(attributePaths = "payment")
+    List<Order> findByStatusOrderByCreatedAtDesc(Order.OrderStatus status, Pageable pageable);
+
+    @EntityGraph(attributePaths = "payment")
+    List<Order> findAllByOrderByCreatedAtDesc(Pageable pageable);
+}
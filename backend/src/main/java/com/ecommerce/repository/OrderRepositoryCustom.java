@@ -0,0 +1,19 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.OrderDto;
+import com.ecommerce.model.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * Orders matching {@code where}, reading only the order columns behind the given
+     * OrderDto properties. Items and the payment are never loaded here. A limit of 0
+     * returns every match.
+     */
+    List<OrderDto> findListing(Collection<String> properties, Specification<Order> where, Sort sort, int limit);
+}
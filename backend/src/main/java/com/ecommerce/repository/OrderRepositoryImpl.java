@@ -0,0 +1,52 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.OrderDto;
+import com.ecommerce.model.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    private static final FieldProjection<Order> LISTING = new FieldProjection<>(Order.class)
+            .column("orderNumber", "orderNumber")
+            .column("userId", (root, query, cb) -> root.get("user").get("id"))
+            .column("status", "status")
+            .column("totalAmount", "totalAmount")
+            .column("shippingAddress", "shippingAddress")
+            .column("billingAddress", "billingAddress")
+            .column("createdAt", "createdAt")
+            .column("updatedAt", "updatedAt");
+
+    private final EntityManager entityManager;
+
+    OrderRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<OrderDto> findListing(Collection<String> properties, Specification<Order> where, Sort sort, int limit) {
+        List<OrderDto> orders = new ArrayList<>();
+        for (Map<String, Object> row : LISTING.find(entityManager, properties, where, sort, limit)) {
+            OrderDto order = new OrderDto();
+            order.setId((Long) row.get("id"));
+            order.setOrderNumber((String) row.get("orderNumber"));
+            order.setUserId((Long) row.get("userId"));
+            order.setStatus((Order.OrderStatus) row.get("status"));
+            order.setTotalAmount((BigDecimal) row.get("totalAmount"));
+            order.setShippingAddress((String) row.get("shippingAddress"));
+            order.setBillingAddress((String) row.get("billingAddress"));
+            order.setCreatedAt((LocalDateTime) row.get("createdAt"));
+            order.setUpdatedAt((LocalDateTime) row.get("updatedAt"));
+            orders.add(order);
+        }
+        return orders;
+    }
+}
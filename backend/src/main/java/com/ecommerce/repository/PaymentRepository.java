@@ -1,13 +1,22 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.model.Payment;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
-    Optional<Payment> findByOrderId(Long orderId);
+    // PaymentDto carries the order's id and number
+    @EntityGraph(attributePaths = "order")
+    Optional<Payment> findWithOrderById(Long id);
+
+    @EntityGraph(attributePaths = "order")
+    @Query("SELECT p FROM Payment p WHERE p.order.id = :orderId")
+    Optional<Payment> findByOrderId(@Param("orderId") Long orderId);
     Optional<Payment> findByTransactionId(String transactionId);
 }
\ No newline at end of file
@@ -1,23 +1,78 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.model.Product;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+    // Product listings fetch the shop with the product, which is all ProductDto reads from it.
+    // additionalImages stays lazy (batch-fetched and cached) to avoid joining a second row set.
+    @EntityGraph(attributePaths = "shop")
+    @Query("SELECT p FROM Product p")
+    List<Product> findAllWithShop();
+
+    @EntityGraph(attributePaths = "shop")
+    Optional<Product> findWithShopById(Long id);
+
+    // Batch lookups (cart refresh); one primary-key IN query
+    @EntityGraph(attributePaths = "shop")
+    List<Product> findWithShopByIdIn(Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "shop")
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "query.featuredProducts")
+    })
     List<Product> findByFeatured(boolean featured);
     
-    List<Product> findByCategoryId(Long categoryId);
+    // Derived finders on an association id LEFT JOIN the association and filter on its key, which
+    // hides the foreign key index; these compare the foreign key column itself
+    @EntityGraph(attributePaths = "shop")
+    @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId")
+    List<Product> findByCategoryId(@Param("categoryId") Long categoryId);
+
+    // Every product in a category subtree: a range scan on the categories.path index feeding
+    // the products.category_id index. The pattern is bound whole (prefix + '%'), since a LIKE
+    // over CONCAT(:prefix, '%') can't use the index, and the subquery keeps the planner from
+    // scanning products first.
+    @EntityGraph(attributePaths = "shop")
+    @Query("SELECT p FROM Product p WHERE p.category.id IN " +
+           "(SELECT c.id FROM Category c WHERE c.path LIKE :pathPattern)")
+    List<Product> findByCategoryPathLike(@Param("pathPattern") String pathPattern);
     
+    @EntityGraph(attributePaths = "shop")
     @Query("SELECT p FROM Product p WHERE " +
            "LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
            "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<Product> searchProducts(@Param("keyword") String keyword);
 
-    List<Product> findByShopId(Long shopId);
+    @EntityGraph(attributePaths = "shop")
+    @Query("SELECT p FROM Product p WHERE p.shop.id = :shopId")
+    List<Product> findByShopId(@Param("shopId") Long shopId);
+
+    // (categoryId, product count) rows for the category catalog
+    @Query("SELECT p.category.id, COUNT(p) FROM Product p WHERE p.category IS NOT NULL GROUP BY p.category.id")
+    List<Object[]> countProductsPerCategory();
+
+    // Keyset pages of (id, imageUrl) for the image garbage collector
+    @Query("SELECT p.id, p.imageUrl FROM Product p WHERE p.id > :after ORDER BY p.id")
+    List<Object[]> findImageUrlsAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query("SELECT i FROM Product p JOIN p.additionalImages i WHERE p.id > :after AND p.id <= :upTo")
+    List<String> findAdditionalImagesBetween(@Param("after") Long after, @Param("upTo") Long upTo);
+
+    // (productId, imageUrl) rows for ?fields= listings that ask for additionalImages
+    @Query("SELECT p.id, i FROM Product p JOIN p.additionalImages i WHERE p.id IN :ids")
+    List<Object[]> findAdditionalImagesByProductIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
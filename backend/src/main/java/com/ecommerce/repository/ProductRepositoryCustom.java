@@ -0,0 +1,24 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.ProductDto;
+import com.ecommerce.model.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Products matching {@code where} in id order, reading only the columns behind the given
+     * ProductDto properties. categoryId is also read when categoryName is requested, for
+     * the caller to resolve; additionalImages is never loaded here.
+     */
+    List<ProductDto> findListing(Collection<String> properties, Specification<Product> where);
+
+    /**
+     * Products by id, taking those already in the second-level cache from there and the
+     * rest in a single IN query. Missing ids are skipped.
+     */
+    List<Product> findAllCached(Collection<Long> ids);
+}
@@ -0,0 +1,85 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.ProductDto;
+import com.ecommerce.model.Product;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private static final FieldProjection<Product> LISTING = new FieldProjection<>(Product.class)
+            .column("name", "name")
+            .column("description", "description")
+            .column("price", "price")
+            .column("imageUrl", "imageUrl")
+            .column("stockQuantity", "stockQuantity")
+            .column("featured", "featured")
+            // The foreign key columns themselves; neither needs a join
+            .column("categoryId", (root, query, cb) -> root.get("category").get("id"))
+            .column("shopId", (root, query, cb) -> root.get("shop").get("id"))
+            .column("shopName", (root, query, cb) -> root.join("shop").get("name"));
+
+    private final EntityManager entityManager;
+
+    ProductRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<ProductDto> findListing(Collection<String> properties, Specification<Product> where) {
+        Set<String> columns = new HashSet<>(properties);
+        if (columns.contains("categoryName")) {
+            columns.add("categoryId");
+        }
+
+        List<ProductDto> products = new ArrayList<>();
+        for (Map<String, Object> row : LISTING.find(entityManager, columns, where, Sort.by("id"), 0)) {
+            ProductDto product = new ProductDto();
+            product.setId((Long) row.get("id"));
+            product.setName((String) row.get("name"));
+            product.setDescription((String) row.get("description"));
+            product.setPrice((BigDecimal) row.get("price"));
+            product.setImageUrl((String) row.get("imageUrl"));
+            product.setStockQuantity((Integer) row.get("stockQuantity"));
+            product.setFeatured(Boolean.TRUE.equals(row.get("featured")));
+            product.setCategoryId((Long) row.get("categoryId"));
+            product.setShopId((Long) row.get("shopId"));
+            product.setShopName((String) row.get("shopName"));
+            products.add(product);
+        }
+        return products;
+    }
+
+    @Override
+    public List<Product> findAllCached(Collection<Long> ids) {
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        List<Product> products = new ArrayList<>(ids.size());
+        List<Long> uncached = new ArrayList<>();
+        for (Long id : ids) {
+            if (cache.contains(Product.class, id)) {
+                Product product = entityManager.find(Product.class, id);
+                if (product != null) {
+                    products.add(product);
+                }
+            } else {
+                uncached.add(id);
+            }
+        }
+        if (!uncached.isEmpty()) {
+            products.addAll(entityManager.createQuery("SELECT p FROM Product p WHERE p.id IN :ids", Product.class)
+                    .setParameter("ids", uncached)
+                    .getResultList());
+        }
+        return products;
+    }
+}
@@ -0,0 +1,139 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.CategoryDto;
+import com.ecommerce.dto.ProductDto;
+import com.ecommerce.dto.ShopDto;
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catalog reads over R2DBC for the /reactive/** endpoints. Queries select straight into
+ * the DTOs with the joins the JPA services get from entity graphs; the schema is still
+ * owned by the Flyway migrations.
+ *
+ * The Flux and Mono returned here are only as non-blocking as the driver behind
+ * {@link DatabaseClient}. r2dbc-h2 wraps the embedded H2 engine and runs each statement
+ * synchronously on the thread that subscribes; r2dbc-postgresql does not block.
+ */
+@Repository
+public class ReactiveCatalogRepository {
+
+    private static final String PRODUCT_SELECT =
+            "SELECT p.id, p.name, p.description, p.price, p.image_url, p.stock_quantity, p.featured, " +
+            "p.category_id, c.name AS category_name, p.shop_id, s.name AS shop_name " +
+            "FROM products p JOIN shops s ON s.id = p.shop_id LEFT JOIN categories c ON c.id = p.category_id ";
+
+    private static final String SHOP_SELECT =
+            "SELECT s.id, s.name, s.description, s.address, s.logo_url, o.id AS owner_id, " +
+            "CONCAT(o.first_name, ' ', o.last_name) AS owner_name " +
+            "FROM shops s LEFT JOIN users o ON o.id = s.user_id ";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveCatalogRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<ProductDto> findProducts() {
+        return databaseClient.sql(PRODUCT_SELECT + "ORDER BY p.id")
+                .map(ReactiveCatalogRepository::toProduct)
+                .all();
+    }
+
+    public Flux<ProductDto> findFeaturedProducts() {
+        return databaseClient.sql(PRODUCT_SELECT + "WHERE p.featured = TRUE ORDER BY p.id")
+                .map(ReactiveCatalogRepository::toProduct)
+                .all();
+    }
+
+    public Flux<ProductDto> findProductsByShopId(Long shopId) {
+        return databaseClient.sql(PRODUCT_SELECT + "WHERE p.shop_id = :shopId ORDER BY p.id")
+                .bind("shopId", shopId)
+                .map(ReactiveCatalogRepository::toProduct)
+                .all();
+    }
+
+    public Mono<ProductDto> findProductById(Long id) {
+        return databaseClient.sql(PRODUCT_SELECT + "WHERE p.id = :id")
+                .bind("id", id)
+                .map(ReactiveCatalogRepository::toProduct)
+                .one();
+    }
+
+    /**
+     * Additional image URLs of the given products, keyed by product id, in one statement.
+     */
+    public Mono<Map<Long, List<String>>> findAdditionalImages(Collection<Long> productIds) {
+        return databaseClient.sql("SELECT product_id, image_url FROM product_images WHERE product_id IN (:ids)")
+                .bind("ids", productIds)
+                .map((row, metadata) -> new Object[] { row.get("product_id", Long.class), row.get("image_url", String.class) })
+                .all()
+                .collect(HashMap::new, (images, row) ->
+                        images.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((String) row[1]));
+    }
+
+    public Flux<ShopDto> findShops() {
+        return databaseClient.sql(SHOP_SELECT + "ORDER BY s.id")
+                .map(ReactiveCatalogRepository::toShop)
+                .all();
+    }
+
+    public Mono<ShopDto> findShopById(Long id) {
+        return databaseClient.sql(SHOP_SELECT + "WHERE s.id = :id")
+                .bind("id", id)
+                .map(ReactiveCatalogRepository::toShop)
+                .one();
+    }
+
+    public Flux<CategoryDto> findCategories() {
+        return databaseClient.sql("SELECT c.id, c.name, c.description, c.parent_id, c.path, c.depth, COUNT(p.id) AS product_count " +
+                        "FROM categories c LEFT JOIN products p ON p.category_id = c.id " +
+                        "GROUP BY c.id, c.name, c.description, c.parent_id, c.path, c.depth ORDER BY c.id")
+                .map(row -> new CategoryDto(
+                        row.get("id", Long.class),
+                        row.get("name", String.class),
+                        row.get("description", String.class),
+                        row.get("parent_id", Long.class),
+                        row.get("path", String.class),
+                        row.get("depth", Integer.class),
+                        row.get("product_count", Long.class)))
+                .all();
+    }
+
+    private static ProductDto toProduct(Row row) {
+        ProductDto product = new ProductDto();
+        product.setId(row.get("id", Long.class));
+        product.setName(row.get("name", String.class));
+        product.setDescription(row.get("description", String.class));
+        product.setPrice(row.get("price", BigDecimal.class));
+        product.setImageUrl(row.get("image_url", String.class));
+        product.setStockQuantity(row.get("stock_quantity", Integer.class));
+        product.setFeatured(Boolean.TRUE.equals(row.get("featured", Boolean.class)));
+        product.setCategoryId(row.get("category_id", Long.class));
+        product.setCategoryName(row.get("category_name", String.class));
+        product.setShopId(row.get("shop_id", Long.class));
+        product.setShopName(row.get("shop_name", String.class));
+        return product;
+    }
+
+    private static ShopDto toShop(Row row) {
+        return new ShopDto(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("description", String.class),
+                row.get("address", String.class),
+                row.get("logo_url", String.class),
+                row.get("owner_id", Long.class),
+                row.get("owner_name", String.class));
+    }
+}
@@ -1,13 +1,44 @@
 package com.ecommerce.repository;
 
+import com.ecommerce.dto.ShopDto;
 import com.ecommerce.model.Shop;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ShopRepository extends JpaRepository<Shop, Long> {
+public interface ShopRepository extends JpaRepository<Shop, Long>, ShopRepositoryCustom {
     Optional<Shop> findByName(String name);
-    Optional<Shop> findByOwnerId(Long ownerId);
+
+    // ShopDto carries the owner's id and name, so single-shop reads fetch the owner with the shop
+    @EntityGraph(attributePaths = "owner")
+    Optional<Shop> findWithOwnerById(Long id);
+
+    // Compares shops.user_id directly; the derived form would filter on the joined users row
+    @EntityGraph(attributePaths = "owner")
+    @Query("SELECT s FROM Shop s WHERE s.owner.id = :ownerId")
+    Optional<Shop> findByOwnerId(@Param("ownerId") Long ownerId);
+
+    // Shop directory pages: one statement per page, selecting only the owner columns the DTO needs.
+    // JPQL CONCAT renders as ||, which yields null if either name is null, hence the COALESCEs.
+    @Query("SELECT new com.ecommerce.dto.ShopDto(s.id, s.name, s.description, s.address, s.logoUrl, " +
+           "o.id, CONCAT(COALESCE(o.firstName, ''), ' ', COALESCE(o.lastName, ''))) " +
+           "FROM Shop s LEFT JOIN s.owner o WHERE s.id > :after ORDER BY s.id")
+    List<ShopDto> findDirectoryPage(@Param("after") Long after, Pageable pageable);
+
+    @Query("SELECT new com.ecommerce.dto.ShopDto(s.id, s.name, s.description, s.address, s.logoUrl, " +
+           "o.id, CONCAT(COALESCE(o.firstName, ''), ' ', COALESCE(o.lastName, '')), COUNT(p.id)) " +
+           "FROM Shop s LEFT JOIN s.owner o LEFT JOIN s.products p WHERE s.id > :after " +
+           "GROUP BY s.id, s.name, s.description, s.address, s.logoUrl, o.id, o.firstName, o.lastName " +
+           "ORDER BY s.id")
+    List<ShopDto> findDirectoryPageWithProductCount(@Param("after") Long after, Pageable pageable);
+
+    @Query("SELECT s.id, s.logoUrl FROM Shop s WHERE s.id > :after ORDER BY s.id")
+    List<Object[]> findLogoUrlsAfter(@Param("after") Long after, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.ShopDto;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ShopRepositoryCustom {
+
+    /**
+     * A shop directory page (shops after {@code after} in id order), reading only the
+     * columns behind the given ShopDto properties. productCount is a per-shop subquery.
+     * A non-null {@code search} keeps shops whose name or description contains it, ignoring
+     * case; a {@code size} of 0 returns every matching shop.
+     */
+    List<ShopDto> findDirectoryListing(Collection<String> properties, Long after, String search, int size);
+}
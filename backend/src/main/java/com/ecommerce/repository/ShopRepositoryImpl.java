@@ -0,0 +1,65 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.ShopDto;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.Shop;
+import com.ecommerce.model.User;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+class ShopRepositoryImpl implements ShopRepositoryCustom {
+
+    private static final FieldProjection<Shop> DIRECTORY = new FieldProjection<>(Shop.class)
+            .column("name", "name")
+            .column("description", "description")
+            .column("address", "address")
+            .column("logoUrl", "logoUrl")
+            .column("ownerId", (root, query, cb) -> root.get("owner").get("id"))
+            .column("ownerName", (root, query, cb) -> {
+                Join<Shop, User> owner = root.join("owner", JoinType.LEFT);
+                return cb.concat(cb.concat(cb.coalesce(owner.<String>get("firstName"), ""), " "),
+                        cb.coalesce(owner.<String>get("lastName"), ""));
+            })
+            .column("productCount", (root, query, cb) -> {
+                Subquery<Long> count = query.subquery(Long.class);
+                Root<Product> product = count.from(Product.class);
+                return count.select(cb.count(product)).where(cb.equal(product.get("shop"), root));
+            });
+
+    private final EntityManager entityManager;
+
+    ShopRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<ShopDto> findDirectoryListing(Collection<String> properties, Long after, String search, int size) {
+        Specification<Shop> where = (root, query, cb) -> cb.greaterThan(root.<Long>get("id"), after);
+        if (search != null) {
+            String pattern = "%" + search.toLowerCase(Locale.ROOT)
+                    .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+            where = where.and((root, query, cb) -> cb.or(
+                    cb.like(cb.lower(root.get("name")), pattern, '\\'),
+                    cb.like(cb.lower(root.get("description")), pattern, '\\')));
+        }
+
+        List<ShopDto> shops = new ArrayList<>();
+        for (Map<String, Object> row : DIRECTORY.find(entityManager, properties, where, Sort.by("id"), size)) {
+            shops.add(new ShopDto((Long) row.get("id"), (String) row.get("name"), (String) row.get("description"),
+                    (String) row.get("address"), (String) row.get("logoUrl"), (Long) row.get("ownerId"),
+                    (String) row.get("ownerName"), (Long) row.get("productCount")));
+        }
+        return shops;
+    }
+}
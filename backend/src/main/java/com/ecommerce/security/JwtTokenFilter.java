@@ -1,5 +1,7 @@
 package com.ecommerce.security;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,6 +17,8 @@ import java.io.IOException;
 @Component
 public class JwtTokenFilter extends OncePerRequestFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtTokenFilter.class);
+
     private final JwtTokenProvider jwtTokenProvider;
     private final CustomUserDetailsService customUserDetailsService;
 
@@ -28,17 +32,15 @@ public class JwtTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         
         String token = resolveToken(request);
-        System.out.println("JWT Filter - Request URI: " + request.getRequestURI());
-        System.out.println("JWT Filter - Token present: " + (token != null));
+        log.debug("Request URI: {}, token present: {}", request.getRequestURI(), token != null);
         
         try {
             if (token != null) {
                 boolean isValid = jwtTokenProvider.validateToken(token);
-                System.out.println("JWT Filter - Token valid: " + isValid);
+                log.debug("Token valid: {}", isValid);
                 
                 if (isValid) {
                     String username = jwtTokenProvider.getUsername(token);
-                    System.out.println("JWT Filter - Username: " + username);
                     
                     if (username != null) {
                         UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
@@ -46,13 +48,13 @@ public class JwtTokenFilter extends OncePerRequestFilter {
                         
                         if (auth != null) {
                             SecurityContextHolder.getContext().setAuthentication(auth);
-                            System.out.println("JWT Filter - Authentication set in context");
+                            log.debug("Authentication set in context for {}", username);
                         }
                     }
                 }
             }
         } catch (Exception e) {
-            System.out.println("JWT Filter - Exception: " + e.getMessage());
+            log.debug("Token authentication failed: {}", e.getMessage());
             SecurityContextHolder.clearContext();
         }
         
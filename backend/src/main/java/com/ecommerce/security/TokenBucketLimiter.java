@@ -0,0 +1,127 @@
+package com.ecommerce.security;
+
+import com.ecommerce.config.RateLimitProperties;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket for a single route, keyed by client.
+ *
+ * Each bucket is one {@link AtomicLong} holding the time at which it will be
+ * full again (GCRA form of the token bucket), so acquiring a token is a single
+ * CAS with no locking. A bucket whose refill time has passed is
+ * indistinguishable from a new one, which is what makes idle eviction safe.
+ */
+public class TokenBucketLimiter {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final String OVERFLOW_KEY = "__overflow__";
+
+    private final String path;
+    private final boolean prefixMatch;
+    private final String method;
+    private final RateLimitProperties.KeyType keyType;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxBuckets;
+    private final LongSupplier nanoTime;
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep;
+
+    public TokenBucketLimiter(RateLimitProperties.Route route, int maxBuckets) {
+        this(route, maxBuckets, System::nanoTime);
+    }
+
+    TokenBucketLimiter(RateLimitProperties.Route route, int maxBuckets, LongSupplier nanoTime) {
+        if (route.getCapacity() <= 0) {
+            throw new IllegalArgumentException("Rate limit capacity must be positive for " + route.getPath());
+        }
+        String routePath = route.getPath();
+        this.prefixMatch = routePath.endsWith("/**");
+        this.path = prefixMatch ? routePath.substring(0, routePath.length() - 3) : routePath;
+        this.method = route.getMethod() == null || route.getMethod().isEmpty() ? null : route.getMethod();
+        this.keyType = route.getKey();
+        this.burstNanos = route.getPeriod().toNanos();
+        this.intervalNanos = Math.max(1, burstNanos / route.getCapacity());
+        this.maxBuckets = maxBuckets;
+        this.nanoTime = nanoTime;
+        this.lastSweep = new AtomicLong(nanoTime.getAsLong());
+    }
+
+    /**
+     * Matches the way Spring MVC maps handlers: a single trailing slash is ignored, so
+     * {@code /auth/login/} is limited like {@code /auth/login}. The path is expected
+     * decoded and without path parameters, as {@code UrlPathHelper} produces it.
+     */
+    public boolean matches(String requestMethod, String requestPath) {
+        if (method != null && !method.equalsIgnoreCase(requestMethod)) {
+            return false;
+        }
+        if (requestPath.length() > 1 && requestPath.endsWith("/")) {
+            requestPath = requestPath.substring(0, requestPath.length() - 1);
+        }
+        if (!prefixMatch) {
+            return path.equals(requestPath);
+        }
+        return requestPath.startsWith(path)
+                && (requestPath.length() == path.length() || requestPath.charAt(path.length()) == '/');
+    }
+
+    public RateLimitProperties.KeyType getKeyType() {
+        return keyType;
+    }
+
+    /**
+     * Takes one token for the given key.
+     *
+     * @return 0 if the request is allowed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String key) {
+        long now = nanoTime.getAsLong();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = newBucket(key, now);
+        }
+
+        while (true) {
+            long full = bucket.get();
+            long start = full - now > 0 ? full : now;
+            long next = start + intervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(full, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private AtomicLong newBucket(String key, long now) {
+        if (buckets.size() >= maxBuckets) {
+            evictIdle(now);
+            if (buckets.size() >= maxBuckets) {
+                // Every tracked client is active: new clients share one bucket rather than growing the map.
+                return buckets.computeIfAbsent(OVERFLOW_KEY, k -> new AtomicLong(now));
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    private void evictIdle(long now) {
+        long last = lastSweep.get();
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        buckets.entrySet().removeIf(entry -> entry.getValue().get() - now <= 0);
+    }
+}
@@ -0,0 +1,383 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.CartDto;
+import com.ecommerce.dto.CartItemDto;
+import com.ecommerce.exception.InvalidRequestException;
+import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.model.Cart;
+import com.ecommerce.model.CartItem;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.CartItemRepository;
+import com.ecommerce.repository.CartRepository;
+import com.ecommerce.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Server-side carts. Once read, a user's cart stays in memory as its lines keyed by product
+ * id plus running totals. Every change is written through before it is applied in memory:
+ * one primary-key write for the line and one for the totals, however large the cart is.
+ * Carts left untouched for the idle timeout are dropped from memory and read back on next use.
+ *
+ * The in-memory copy belongs to this instance. Behind a load balancer without sticky
+ * sessions, keep the idle timeout short so that a change made on another instance is
+ * picked up soon.
+ */
+@Service
+public class CartService {
+
+    private static final Logger log = LoggerFactory.getLogger(CartService.class);
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long idleTimeoutMillis;
+    private final Map<Long, CachedCart> carts = new ConcurrentHashMap<>();
+
+    public CartService(CartRepository cartRepository, CartItemRepository cartItemRepository,
+                       ProductRepository productRepository, PlatformTransactionManager transactionManager,
+                       @Value("${app.cart.cache.idle-timeout:PT30M}") Duration idleTimeout) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+    }
+
+    public CartDto getCart(Long userId) {
+        return withCart(userId, this::toDto);
+    }
+
+    /**
+     * Adds {@code quantity} of a product, on top of any already in the cart.
+     */
+    public CartDto addItem(Long userId, Long productId, int quantity) {
+        Product product = findProduct(productId);
+        return withCart(userId, cart -> {
+            CartItemDto line = cart.lines.get(productId);
+            setLine(userId, cart, product, (line != null ? line.getQuantity() : 0) + quantity);
+            return toDto(cart);
+        });
+    }
+
+    /**
+     * Sets a line's quantity; zero or less removes the line.
+     */
+    public CartDto updateItem(Long userId, Long productId, int quantity) {
+        if (quantity <= 0) {
+            return removeItem(userId, productId);
+        }
+        Product product = findProduct(productId);
+        return withCart(userId, cart -> {
+            setLine(userId, cart, product, quantity);
+            return toDto(cart);
+        });
+    }
+
+    public CartDto removeItem(Long userId, Long productId) {
+        return withCart(userId, cart -> {
+            CartItemDto line = cart.lines.get(productId);
+            if (line != null) {
+                removeLines(userId, cart, List.of(line));
+            }
+            return toDto(cart);
+        });
+    }
+
+    public void clear(Long userId) {
+        withCart(userId, cart -> {
+            if (!cart.lines.isEmpty()) {
+                LocalDateTime now = LocalDateTime.now();
+                write(userId, cart, cartId -> {
+                    cartItemRepository.deleteByCart(cartId);
+                    cartRepository.updateTotals(cartId, BigDecimal.ZERO, 0, now);
+                });
+                cart.lines.clear();
+                cart.setTotals(BigDecimal.ZERO, 0, now);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Hands the cart's lines to {@code placeOrder}, which removes them from the database
+     * through {@link Checkout#removeLines()} as part of its own work, and empties the cached
+     * cart once it returns. The cart stays locked throughout, so a second checkout of the same
+     * cart (a double click, say) waits and then finds it empty instead of ordering the same
+     * lines again.
+     */
+    public <T> T checkout(Long userId, Function<Checkout, T> placeOrder) {
+        return withCart(userId, cart -> {
+            List<CartItemDto> lines = toDto(cart).getItems();
+            if (lines.isEmpty()) {
+                throw new InvalidRequestException("Cart is empty");
+            }
+            Checkout checkout = new Checkout(userId, cart, lines);
+            T order;
+            try {
+                order = placeOrder.apply(checkout);
+            } catch (RuntimeException e) {
+                if (checkout.removedAt != null) {
+                    // Removed and not put back (or the removal rolled back); the database is
+                    // right either way, so read the cart from there next time
+                    log.warn("Checkout of cart {} failed after its lines were removed, evicting it", cart.cartId);
+                    evict(userId, cart);
+                }
+                throw e;
+            }
+            cart.lines.clear();
+            cart.setTotals(BigDecimal.ZERO, 0, checkout.removedAt);
+            return order;
+        });
+    }
+
+    /**
+     * A cart being checked out. Its methods write through the calling transaction, if there
+     * is one, so the lines go with the stock they were ordered against.
+     */
+    public final class Checkout {
+        private final Long userId;
+        private final CachedCart cart;
+        private final List<CartItemDto> lines;
+        private LocalDateTime removedAt;
+
+        private Checkout(Long userId, CachedCart cart, List<CartItemDto> lines) {
+            this.userId = userId;
+            this.cart = cart;
+            this.lines = lines;
+        }
+
+        public List<CartItemDto> getLines() {
+            return lines;
+        }
+
+        public void removeLines() {
+            LocalDateTime now = LocalDateTime.now();
+            write(userId, cart, cartId -> {
+                cartItemRepository.deleteByCart(cartId);
+                cartRepository.updateTotals(cartId, BigDecimal.ZERO, 0, now);
+            });
+            removedAt = now;
+        }
+
+        // For an order that failed after removeLines committed
+        public void restoreLines() {
+            write(userId, cart, cartId -> {
+                for (CartItemDto line : lines) {
+                    cartItemRepository.save(new CartItem(cartId, line.getProductId(), line.getQuantity(),
+                            line.getUnitPrice(), line.getProductName(), line.getImageUrl()));
+                }
+                cartRepository.updateTotals(cartId, cart.totalAmount, cart.itemCount, cart.updatedAt);
+            });
+            removedAt = null;
+        }
+    }
+
+    /**
+     * Drops carts that haven't been used for the idle timeout. A cart that is busy is
+     * skipped and looked at again on the next sweep.
+     */
+    @Scheduled(fixedDelayString = "${app.cart.cache.sweep-interval:PT1M}",
+               initialDelayString = "${app.cart.cache.sweep-interval:PT1M}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        int evicted = 0;
+        for (Map.Entry<Long, CachedCart> entry : carts.entrySet()) {
+            CachedCart cart = entry.getValue();
+            if (cart.lastAccess < cutoff && cart.lock.tryLock()) {
+                try {
+                    if (cart.lastAccess < cutoff) {
+                        evict(entry.getKey(), cart);
+                        evicted++;
+                    }
+                } finally {
+                    cart.lock.unlock();
+                }
+            }
+        }
+        if (evicted > 0) {
+            log.debug("Evicted {} idle carts, {} remain cached", evicted, carts.size());
+        }
+    }
+
+    // Only called while holding the cart's lock
+    private void evict(Long userId, CachedCart cart) {
+        cart.evicted = true;
+        carts.remove(userId, cart);
+    }
+
+    private void setLine(Long userId, CachedCart cart, Product product, int quantity) {
+        if (product.getStockQuantity() < quantity) {
+            throw new InvalidRequestException("Not enough stock for product: " + product.getName());
+        }
+        CartItemDto previous = cart.lines.get(product.getId());
+        CartItemDto line = new CartItemDto(product.getId(), product.getName(), product.getImageUrl(),
+                product.getPrice(), quantity, product.getPrice().multiply(BigDecimal.valueOf(quantity)));
+
+        BigDecimal total = cart.totalAmount.add(line.getSubtotal());
+        int count = cart.itemCount + quantity;
+        if (previous != null) {
+            total = total.subtract(previous.getSubtotal());
+            count -= previous.getQuantity();
+        }
+        BigDecimal newTotal = total;
+        int newCount = count;
+        LocalDateTime now = LocalDateTime.now();
+
+        write(userId, cart, cartId -> {
+            if (previous != null) {
+                cartItemRepository.updateLine(cartId, line.getProductId(), quantity, line.getUnitPrice(),
+                        line.getProductName(), line.getImageUrl());
+            } else {
+                cartItemRepository.save(new CartItem(cartId, line.getProductId(), quantity, line.getUnitPrice(),
+                        line.getProductName(), line.getImageUrl()));
+            }
+            cartRepository.updateTotals(cartId, newTotal, newCount, now);
+        });
+        cart.lines.put(line.getProductId(), line);
+        cart.setTotals(newTotal, newCount, now);
+    }
+
+    private void removeLines(Long userId, CachedCart cart, List<CartItemDto> lines) {
+        BigDecimal total = cart.totalAmount;
+        int count = cart.itemCount;
+        for (CartItemDto line : lines) {
+            total = total.subtract(line.getSubtotal());
+            count -= line.getQuantity();
+        }
+        BigDecimal newTotal = total;
+        int newCount = count;
+        LocalDateTime now = LocalDateTime.now();
+
+        write(userId, cart, cartId -> {
+            for (CartItemDto line : lines) {
+                cartItemRepository.deleteLine(cartId, line.getProductId());
+            }
+            cartRepository.updateTotals(cartId, newTotal, newCount, now);
+        });
+        for (CartItemDto line : lines) {
+            cart.lines.remove(line.getProductId());
+        }
+        cart.setTotals(newTotal, newCount, now);
+    }
+
+    /**
+     * Runs the statements in one transaction, creating the cart row first if the user has
+     * none yet. The in-memory cart is only changed by the caller once this returns, so a
+     * failed write leaves both sides as they were.
+     */
+    private void write(Long userId, CachedCart cart, Consumer<Long> statements) {
+        cart.cartId = transactionTemplate.execute(status -> {
+            Long cartId = cart.cartId;
+            if (cartId == null) {
+                Cart created = new Cart();
+                created.setUserId(userId);
+                cartId = cartRepository.save(created).getId();
+            }
+            statements.accept(cartId);
+            return cartId;
+        });
+    }
+
+    private <T> T withCart(Long userId, Function<CachedCart, T> work) {
+        while (true) {
+            CachedCart cart = carts.get(userId);
+            if (cart == null) {
+                // Loaded outside the map so a slow read doesn't block other users' carts
+                CachedCart loaded = load(userId);
+                CachedCart existing = carts.putIfAbsent(userId, loaded);
+                cart = existing != null ? existing : loaded;
+            }
+            cart.lock.lock();
+            try {
+                if (cart.evicted) {
+                    // Swept between the lookup and the lock; start again from the database
+                    continue;
+                }
+                cart.lastAccess = System.currentTimeMillis();
+                return work.apply(cart);
+            } finally {
+                cart.lock.unlock();
+            }
+        }
+    }
+
+    // In a read-write transaction so a replica never serves a cart older than the last write
+    private CachedCart load(Long userId) {
+        return transactionTemplate.execute(status -> {
+            CachedCart cart = new CachedCart();
+            Optional<Cart> stored = cartRepository.findByUserId(userId);
+            if (stored.isEmpty()) {
+                return cart;
+            }
+            cart.cartId = stored.get().getId();
+            BigDecimal total = BigDecimal.ZERO;
+            int count = 0;
+            for (CartItem item : cartItemRepository.findByCartId(cart.cartId)) {
+                CartItemDto line = new CartItemDto(item.getProductId(), item.getProductName(), item.getImageUrl(),
+                        item.getUnitPrice(), item.getQuantity(),
+                        item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+                cart.lines.put(line.getProductId(), line);
+                total = total.add(line.getSubtotal());
+                count += line.getQuantity();
+            }
+            if (total.compareTo(stored.get().getTotalAmount()) != 0 || count != stored.get().getItemCount()) {
+                log.debug("Cart {} totals out of step with its lines, using the lines", cart.cartId);
+            }
+            cart.setTotals(total, count, stored.get().getUpdatedAt());
+            return cart;
+        });
+    }
+
+    private Product findProduct(Long productId) {
+        // By primary key, so usually answered from the second-level cache
+        return productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
+    }
+
+    private CartDto toDto(CachedCart cart) {
+        List<CartItemDto> items = new ArrayList<>(cart.lines.size());
+        for (CartItemDto line : cart.lines.values()) {
+            items.add(new CartItemDto(line.getProductId(), line.getProductName(), line.getImageUrl(),
+                    line.getUnitPrice(), line.getQuantity(), line.getSubtotal()));
+        }
+        return new CartDto(items, cart.totalAmount, cart.itemCount, cart.updatedAt);
+    }
+
+    // Fields other than lastAccess are only touched while holding lock
+    private static final class CachedCart {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<Long, CartItemDto> lines = new LinkedHashMap<>();
+        private Long cartId;
+        private BigDecimal totalAmount = BigDecimal.ZERO;
+        private int itemCount;
+        private LocalDateTime updatedAt;
+        private boolean evicted;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        private void setTotals(BigDecimal totalAmount, int itemCount, LocalDateTime updatedAt) {
+            this.totalAmount = totalAmount;
+            this.itemCount = itemCount;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
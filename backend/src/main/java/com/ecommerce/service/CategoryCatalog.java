@@ -0,0 +1,280 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.CategoryDto;
+import com.ecommerce.dto.CategoryTreeDto;
+import com.ecommerce.model.Category;
+import com.ecommerce.repository.CategoryRepository;
+import com.ecommerce.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory view of the category tree with product counts, used for menus, breadcrumbs
+ * and subtree lookups without touching the database.
+ *
+ * Readers get an immutable {@link Snapshot}; every change builds a new snapshot and swaps
+ * it in atomically, so reads never lock and never see a half-applied update. Category
+ * writes and product writes update the snapshot incrementally (after commit when a
+ * transaction is active), and a periodic reload from the database corrects any drift,
+ * e.g. from writes made by another instance.
+ */
+@Service
+public class CategoryCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryCatalog.class);
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnly;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    // Not synchronized: the first load queries the database, and a virtual thread blocked
+    // inside a monitor would pin its carrier thread
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    public CategoryCatalog(CategoryRepository categoryRepository, ProductRepository productRepository,
+                           PlatformTransactionManager transactionManager) {
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        // A template rather than @Transactional: the first read loads through snapshot(),
+        // a self-invocation the transactional proxy never sees
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    public List<CategoryDto> getAll() {
+        return snapshot().categories;
+    }
+
+    public Optional<CategoryDto> get(Long id) {
+        return Optional.ofNullable(snapshot().byId.get(id));
+    }
+
+    public boolean exists(Long id) {
+        return id != null && snapshot().byId.containsKey(id);
+    }
+
+    public long productCount(Long id) {
+        return snapshot().count(id);
+    }
+
+    public boolean hasChildren(Long id) {
+        return snapshot().children.containsKey(id);
+    }
+
+    public List<CategoryTreeDto> getTree() {
+        return snapshot().tree;
+    }
+
+    /**
+     * The category and its ancestors, root first, read off its materialized path.
+     */
+    public List<CategoryDto> getBreadcrumb(Long id) {
+        Snapshot current = snapshot();
+        CategoryDto category = current.byId.get(id);
+        if (category == null) {
+            return List.of();
+        }
+        List<CategoryDto> breadcrumb = new ArrayList<>(category.getDepth() + 1);
+        for (String segment : category.getPath().split("/")) {
+            if (!segment.isEmpty()) {
+                CategoryDto ancestor = current.byId.get(Long.valueOf(segment));
+                if (ancestor != null) {
+                    breadcrumb.add(ancestor);
+                }
+            }
+        }
+        return breadcrumb;
+    }
+
+    /**
+     * Reloads every category and count from the database. If an incremental update landed
+     * while the reload ran, the loaded state may predate it, so the newer snapshot is kept
+     * and the next reload corrects any drift.
+     */
+    @Scheduled(fixedDelayString = "${app.categories.refresh-interval:PT5M}",
+               initialDelayString = "${app.categories.refresh-interval:PT5M}")
+    public void reload() {
+        Snapshot started = snapshot.get();
+        Snapshot loaded = readOnly.execute(status -> load());
+        if (snapshot.compareAndSet(started, loaded)) {
+            log.debug("Loaded {} categories into the catalog", loaded.categories.size());
+        } else {
+            log.debug("Category catalog changed during reload, keeping the newer snapshot");
+        }
+    }
+
+    private Snapshot load() {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : productRepository.countProductsPerCategory()) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+
+        List<CategoryDto> categories = new ArrayList<>();
+        for (Category category : categoryRepository.findAll()) {
+            categories.add(toDto(category, counts.getOrDefault(category.getId(), 0L)));
+        }
+        return new Snapshot(categories);
+    }
+
+    /**
+     * Adds or replaces a single category, keeping its current count. Moves that change
+     * descendants' paths go through {@link #invalidate()} instead.
+     */
+    public void put(Category category) {
+        CategoryDto updated = toDto(category, 0);
+        afterCommit(current -> {
+            List<CategoryDto> categories = new ArrayList<>(current.categories);
+            categories.removeIf(c -> c.getId().equals(updated.getId()));
+            updated.setProductCount(current.count(updated.getId()));
+            categories.add(updated);
+            return new Snapshot(categories);
+        });
+    }
+
+    /**
+     * Drops the snapshot so the next read reloads it.
+     */
+    public void invalidate() {
+        afterCommit(current -> null);
+    }
+
+    public void remove(Long id) {
+        afterCommit(current -> {
+            List<CategoryDto> categories = new ArrayList<>(current.categories);
+            categories.removeIf(c -> c.getId().equals(id));
+            return new Snapshot(categories);
+        });
+    }
+
+    /**
+     * Records a product moving between categories. Either side may be null
+     * (uncategorised, created or deleted).
+     */
+    public void productMoved(Long fromCategoryId, Long toCategoryId) {
+        if (fromCategoryId == null ? toCategoryId == null : fromCategoryId.equals(toCategoryId)) {
+            return;
+        }
+        afterCommit(current -> {
+            List<CategoryDto> categories = new ArrayList<>(current.categories.size());
+            for (CategoryDto category : current.categories) {
+                long delta = (category.getId().equals(toCategoryId) ? 1 : 0)
+                        - (category.getId().equals(fromCategoryId) ? 1 : 0);
+                categories.add(delta == 0 ? category : withCount(category, Math.max(0, category.getProductCount() + delta)));
+            }
+            return new Snapshot(categories);
+        });
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot.get();
+        // Loops because an invalidate() may drop the snapshot again right after the load
+        while (current == null) {
+            loadLock.lock();
+            try {
+                if (snapshot.get() == null) {
+                    reload();
+                }
+                current = snapshot.get();
+            } finally {
+                loadLock.unlock();
+            }
+        }
+        return current;
+    }
+
+    private static CategoryDto toDto(Category category, long productCount) {
+        Long parentId = category.getParent() != null ? category.getParent().getId() : null;
+        return new CategoryDto(category.getId(), category.getName(), category.getDescription(),
+                parentId, category.getPath(), category.getDepth(), productCount);
+    }
+
+    private static CategoryDto withCount(CategoryDto category, long productCount) {
+        return new CategoryDto(category.getId(), category.getName(), category.getDescription(),
+                category.getParentId(), category.getPath(), category.getDepth(), productCount);
+    }
+
+    private void afterCommit(UnaryOperator<Snapshot> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private void apply(UnaryOperator<Snapshot> change) {
+        // Not loaded yet: the first read will load the committed state anyway
+        snapshot.updateAndGet(current -> current != null ? change.apply(current) : null);
+    }
+
+    private static final class Snapshot {
+        private final List<CategoryDto> categories;
+        private final Map<Long, CategoryDto> byId;
+        private final Map<Long, List<CategoryDto>> children;
+        private final List<CategoryTreeDto> tree;
+
+        private Snapshot(List<CategoryDto> categories) {
+            categories.sort(Comparator.comparing(CategoryDto::getId));
+            Map<Long, CategoryDto> byId = new HashMap<>();
+            Map<Long, List<CategoryDto>> children = new HashMap<>();
+            List<CategoryDto> roots = new ArrayList<>();
+            for (CategoryDto category : categories) {
+                byId.put(category.getId(), category);
+            }
+            for (CategoryDto category : categories) {
+                if (category.getParentId() != null && byId.containsKey(category.getParentId())) {
+                    children.computeIfAbsent(category.getParentId(), k -> new ArrayList<>()).add(category);
+                } else {
+                    roots.add(category);
+                }
+            }
+            this.categories = Collections.unmodifiableList(categories);
+            this.byId = byId;
+            this.children = children;
+
+            List<CategoryTreeDto> tree = new ArrayList<>(roots.size());
+            for (CategoryDto root : roots) {
+                tree.add(buildNode(root));
+            }
+            this.tree = Collections.unmodifiableList(tree);
+        }
+
+        private CategoryTreeDto buildNode(CategoryDto category) {
+            List<CategoryTreeDto> nodes = new ArrayList<>();
+            long subtreeCount = category.getProductCount();
+            for (CategoryDto child : children.getOrDefault(category.getId(), List.of())) {
+                CategoryTreeDto node = buildNode(child);
+                subtreeCount += node.getSubtreeProductCount();
+                nodes.add(node);
+            }
+            return new CategoryTreeDto(category.getId(), category.getName(), category.getProductCount(),
+                    subtreeCount, Collections.unmodifiableList(nodes));
+        }
+
+        private long count(Long id) {
+            CategoryDto category = byId.get(id);
+            return category != null ? category.getProductCount() : 0;
+        }
+    }
+}
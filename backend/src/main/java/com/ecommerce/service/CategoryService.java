@@ -1,37 +1,68 @@
 package com.ecommerce.service;
 
 import com.ecommerce.dto.CategoryDto;
+import com.ecommerce.dto.CategoryTreeDto;
 import com.ecommerce.exception.InvalidRequestException;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.Category;
 import com.ecommerce.repository.CategoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 @Service
 public class CategoryService {
     
+    private static final Logger log = LoggerFactory.getLogger(CategoryService.class);
+    
     private final CategoryRepository categoryRepository;
+    private final CategoryCatalog categoryCatalog;
     
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, CategoryCatalog categoryCatalog) {
         this.categoryRepository = categoryRepository;
+        this.categoryCatalog = categoryCatalog;
     }
     
+    @Transactional(readOnly = true)
     public List<CategoryDto> getAllCategories() {
-        return categoryRepository.findAll().stream()
-                .map(this::mapCategoryToDto)
-                .collect(Collectors.toList());
+        return categoryCatalog.getAll();
     }
     
+    @Transactional(readOnly = true)
     public CategoryDto getCategoryById(Long id) {
-        Category category = categoryRepository.findById(id)
+        return categoryCatalog.get(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
-        
-        return mapCategoryToDto(category);
     }
     
+    @Transactional(readOnly = true)
+    public List<CategoryTreeDto> getCategoryTree() {
+        return categoryCatalog.getTree();
+    }
+    
+    @Transactional(readOnly = true)
+    public List<CategoryDto> getBreadcrumb(Long id) {
+        if (!categoryCatalog.exists(id)) {
+            throw new ResourceNotFoundException("Category", "id", id);
+        }
+        return categoryCatalog.getBreadcrumb(id);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillPaths() {
+        int updated = categoryRepository.backfillRootPaths();
+        if (updated > 0) {
+            log.info("Assigned root paths to {} existing categories", updated);
+            categoryCatalog.invalidate();
+        }
+    }
+    
+    @Transactional
     public CategoryDto createCategory(CategoryDto categoryDto) {
         categoryRepository.findByName(categoryDto.getName())
                 .ifPresent(c -> {
@@ -42,11 +73,24 @@ public class CategoryService {
         category.setName(categoryDto.getName());
         category.setDescription(categoryDto.getDescription());
         
+        String parentPath = "/";
+        if (categoryDto.getParentId() != null) {
+            CategoryDto parent = getCategoryById(categoryDto.getParentId());
+            category.setParent(categoryRepository.getReferenceById(parent.getId()));
+            category.setDepth(parent.getDepth() + 1);
+            parentPath = parent.getPath();
+        }
+        
+        // The path ends with the category's own id, which only exists after the insert
         Category savedCategory = categoryRepository.save(category);
+        savedCategory.setPath(parentPath + savedCategory.getId() + "/");
+        savedCategory = categoryRepository.save(savedCategory);
+        categoryCatalog.put(savedCategory);
         
         return mapCategoryToDto(savedCategory);
     }
     
+    @Transactional
     public CategoryDto updateCategory(Long id, CategoryDto categoryDto) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
@@ -58,23 +102,93 @@ public class CategoryService {
                     }
                 });
         
+        // A missing parentId leaves the category where it is; moving to the root goes through
+        // moveCategory, where a null parent is explicit
+        Long previousParentId = category.getParent() != null ? category.getParent().getId() : null;
+        boolean moved = categoryDto.getParentId() != null
+                && !Objects.equals(previousParentId, categoryDto.getParentId());
+        if (moved) {
+            category = reparent(category, categoryDto.getParentId());
+        }
+        
         category.setName(categoryDto.getName());
         category.setDescription(categoryDto.getDescription());
         
         Category updatedCategory = categoryRepository.save(category);
+        if (moved) {
+            categoryCatalog.invalidate();
+        } else {
+            categoryCatalog.put(updatedCategory);
+        }
         
         return mapCategoryToDto(updatedCategory);
     }
     
-    public void deleteCategory(Long id) {
+    /**
+     * Moves a category, with its subtree, under {@code parentId}, or to the top level when
+     * {@code parentId} is null.
+     */
+    @Transactional
+    public CategoryDto moveCategory(Long id, Long parentId) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
         
-        if (!category.getProducts().isEmpty()) {
+        Long previousParentId = category.getParent() != null ? category.getParent().getId() : null;
+        if (Objects.equals(previousParentId, parentId)) {
+            return mapCategoryToDto(category);
+        }
+        
+        Category movedCategory = categoryRepository.save(reparent(category, parentId));
+        categoryCatalog.invalidate();
+        
+        return mapCategoryToDto(movedCategory);
+    }
+    
+    @Transactional
+    public void deleteCategory(Long id) {
+        if (!categoryCatalog.exists(id)) {
+            throw new ResourceNotFoundException("Category", "id", id);
+        }
+        
+        if (categoryCatalog.productCount(id) > 0) {
             throw new InvalidRequestException("Cannot delete category with associated products");
         }
         
+        if (categoryCatalog.hasChildren(id)) {
+            throw new InvalidRequestException("Cannot delete category with subcategories");
+        }
+        
         categoryRepository.deleteById(id);
+        categoryCatalog.remove(id);
+    }
+    
+    /**
+     * Re-parents a category (to the root when {@code newParentId} is null), rewriting its own
+     * and every descendant's path with one bulk update. Returns the category with its new
+     * parent, path and depth set.
+     */
+    private Category reparent(Category category, Long newParentId) {
+        String oldPath = category.getPath();
+        String newPath;
+        int newDepth;
+        if (newParentId == null) {
+            newPath = "/" + category.getId() + "/";
+            newDepth = 0;
+        } else {
+            CategoryDto parent = getCategoryById(newParentId);
+            if (parent.getPath().startsWith(oldPath)) {
+                throw new InvalidRequestException("A category cannot be moved under itself or one of its subcategories");
+            }
+            newPath = parent.getPath() + category.getId() + "/";
+            newDepth = parent.getDepth() + 1;
+        }
+        
+        categoryRepository.movePaths(oldPath, oldPath.length(), newPath, newDepth - category.getDepth());
+        
+        category.setParent(newParentId != null ? categoryRepository.getReferenceById(newParentId) : null);
+        category.setPath(newPath);
+        category.setDepth(newDepth);
+        return category;
     }
     
     private CategoryDto mapCategoryToDto(Category category) {
@@ -82,6 +196,10 @@ public class CategoryService {
         categoryDto.setId(category.getId());
         categoryDto.setName(category.getName());
         categoryDto.setDescription(category.getDescription());
+        categoryDto.setParentId(category.getParent() != null ? category.getParent().getId() : null);
+        categoryDto.setPath(category.getPath());
+        categoryDto.setDepth(category.getDepth());
+        categoryDto.setProductCount(categoryCatalog.productCount(category.getId()));
         
         return categoryDto;
     }
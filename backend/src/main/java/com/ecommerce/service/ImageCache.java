@@ -0,0 +1,93 @@
+package com.ecommerce.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LRU of small image files held in memory, bounded by total bytes rather than entry count.
+ * Entries are keyed by path and checked against the file's size and mtime on every hit,
+ * so a replaced file is never served stale.
+ */
+@Service
+public class ImageCache {
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+
+    // Guards entries and totalBytes; a lock rather than synchronized so virtual threads never pin
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    public ImageCache(@Value("${app.images.cache.max-bytes:33554432}") long maxBytes,
+                      @Value("${app.images.cache.max-entry-bytes:262144}") long maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.min(maxEntryBytes, maxBytes);
+    }
+
+    public boolean isCacheable(long size) {
+        return size <= maxEntryBytes;
+    }
+
+    /**
+     * Returns the file's contents, reading it from disk on a miss. The disk read happens
+     * outside the lock; two concurrent misses on the same file both read it, which is
+     * cheaper than serialising every miss.
+     */
+    public byte[] get(Path file, BasicFileAttributes attributes) throws IOException {
+        long modified = attributes.lastModifiedTime().toMillis();
+        lock.lock();
+        try {
+            Entry entry = entries.get(file);
+            if (entry != null && entry.data.length == attributes.size() && entry.modified == modified) {
+                return entry.data;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        byte[] data = Files.readAllBytes(file);
+        if (data.length == attributes.size() && isCacheable(data.length)) {
+            put(file, new Entry(data, modified));
+        }
+        return data;
+    }
+
+    private void put(Path file, Entry entry) {
+        lock.lock();
+        try {
+            Entry previous = entries.put(file, entry);
+            if (previous != null) {
+                totalBytes -= previous.data.length;
+            }
+            totalBytes += entry.data.length;
+
+            Iterator<Map.Entry<Path, Entry>> eldest = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                totalBytes -= eldest.next().getValue().data.length;
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Entry {
+        private final byte[] data;
+        private final long modified;
+
+        private Entry(byte[] data, long modified) {
+            this.data = data;
+            this.modified = modified;
+        }
+    }
+}
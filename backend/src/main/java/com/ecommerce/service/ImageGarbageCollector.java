@@ -0,0 +1,331 @@
+package com.ecommerce.service;
+
+import com.ecommerce.repository.ImageBlobRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.ShopRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Incrementally removes uploaded images that nothing references any more.
+ *
+ * Each run scans a few directories of the upload root (one objects/ shard or one legacy
+ * directory per unit), resuming where the previous run stopped. Files are checked against
+ * a sorted array of 64-bit fingerprints of every image path referenced by products,
+ * product_images and shops, loaded in keyset-paged chunks. A fingerprint collision can
+ * only keep a file alive, never delete a referenced one.
+ *
+ * Unreferenced files older than the grace period are moved to .trash/ (and their variants
+ * deleted); files that have sat in .trash/ for the quarantine period are deleted, as are
+ * staging files left in tmp/ by uploads that never committed once they pass the grace
+ * period. File operations are paced to keep I/O smooth.
+ *
+ * Off unless app.images.gc.enabled is set, and refused on an in-memory database: after a
+ * restart nothing there references the files already uploaded, so every one of them would
+ * look unreferenced.
+ */
+@Service
+@ConditionalOnProperty(name = "app.images.gc.enabled", havingValue = "true")
+public class ImageGarbageCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageGarbageCollector.class);
+
+    public static final String TRASH_DIR = ".trash";
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final ImageStorageService imageStorageService;
+    private final ImageVariantService imageVariantService;
+    private final ImageBlobRepository imageBlobRepository;
+    private final ProductRepository productRepository;
+    private final ShopRepository shopRepository;
+    private final Duration gracePeriod;
+    private final Duration quarantinePeriod;
+    private final int unitsPerRun;
+    private final int chunkSize;
+    private final long pauseMillis;
+
+    // Last unit scanned; only touched from the scheduler thread
+    private String cursor = "";
+
+    public ImageGarbageCollector(ImageStorageService imageStorageService,
+                                 ImageVariantService imageVariantService,
+                                 ImageBlobRepository imageBlobRepository,
+                                 ProductRepository productRepository,
+                                 ShopRepository shopRepository,
+                                 @Value("${app.images.gc.grace-period:P1D}") Duration gracePeriod,
+                                 @Value("${app.images.gc.quarantine-period:P7D}") Duration quarantinePeriod,
+                                 @Value("${app.images.gc.units-per-run:16}") int unitsPerRun,
+                                 @Value("${app.images.gc.chunk-size:1000}") int chunkSize,
+                                 @Value("${app.images.gc.max-operations-per-second:20}") int maxOperationsPerSecond,
+                                 @Value("${spring.datasource.url:}") String datasourceUrl) {
+        if (datasourceUrl.startsWith("jdbc:h2:mem:")) {
+            throw new IllegalStateException("app.images.gc.enabled needs a persistent database, but "
+                    + datasourceUrl + " is in memory: after a restart every uploaded image would look unreferenced");
+        }
+        this.imageStorageService = imageStorageService;
+        this.imageVariantService = imageVariantService;
+        this.imageBlobRepository = imageBlobRepository;
+        this.productRepository = productRepository;
+        this.shopRepository = shopRepository;
+        this.gracePeriod = gracePeriod;
+        this.quarantinePeriod = quarantinePeriod;
+        this.unitsPerRun = unitsPerRun;
+        this.chunkSize = chunkSize;
+        this.pauseMillis = maxOperationsPerSecond > 0 ? 1000L / maxOperationsPerSecond : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${app.images.gc.interval:PT10M}",
+               initialDelayString = "${app.images.gc.initial-delay:PT5M}")
+    public void collect() {
+        try {
+            run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Image garbage collection failed", e);
+        }
+    }
+
+    private void run() throws IOException, InterruptedException {
+        Path root = imageStorageService.getRoot();
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+
+        int purged = purgeTrash(root.resolve(TRASH_DIR));
+        int abandoned = purgeStaging(root.resolve(ImageStorageService.TMP_DIR));
+
+        List<Path> units = nextUnits(root);
+        if (units.isEmpty()) {
+            return;
+        }
+
+        long[] referenced = loadReferencedFingerprints();
+        Instant cutoff = Instant.now().minus(gracePeriod);
+        int scanned = 0;
+        int quarantined = 0;
+
+        for (Path unit : units) {
+            try (Stream<Path> files = Files.walk(unit)) {
+                Iterator<Path> iterator = files.iterator();
+                while (iterator.hasNext()) {
+                    Path file = iterator.next();
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    } catch (NoSuchFileException e) {
+                        continue;
+                    }
+                    if (!attributes.isRegularFile() || attributes.lastModifiedTime().toInstant().isAfter(cutoff)) {
+                        continue;
+                    }
+                    scanned++;
+
+                    if (file.getFileName().toString().startsWith(".")) {
+                        continue;
+                    }
+
+                    String relative = relativize(root, file);
+                    if (Arrays.binarySearch(referenced, fingerprint(relative)) >= 0 || !releaseBlob(relative, cutoff)) {
+                        continue;
+                    }
+                    quarantine(root, file, relative);
+                    quarantined++;
+                    pace();
+                }
+            }
+            cursor = relativize(root, unit);
+        }
+
+        log.info("Image GC scanned {} files in {} directories, quarantined {}, purged {}, removed {} abandoned uploads",
+                scanned, units.size(), quarantined, purged, abandoned);
+    }
+
+    /**
+     * Picks the next directories to scan after the cursor, wrapping around to the start
+     * once every directory has been visited.
+     */
+    private List<Path> nextUnits(Path root) throws IOException {
+        List<Path> units = new ArrayList<>();
+        try (Stream<Path> topLevel = Files.list(root)) {
+            for (Path dir : topLevel.filter(Files::isDirectory).collect(Collectors.toList())) {
+                String name = dir.getFileName().toString();
+                if (name.equals(ImageStorageService.OBJECTS_DIR)) {
+                    try (Stream<Path> shards = Files.list(dir)) {
+                        shards.filter(Files::isDirectory).forEach(units::add);
+                    }
+                } else if (!name.equals(TRASH_DIR) && !name.equals(ImageVariantService.VARIANTS_DIR)
+                        && !name.equals(ImageStorageService.TMP_DIR)) {
+                    units.add(dir);
+                }
+            }
+        }
+        units.sort((a, b) -> relativize(root, a).compareTo(relativize(root, b)));
+
+        List<Path> next = units.stream()
+                .filter(unit -> relativize(root, unit).compareTo(cursor) > 0)
+                .limit(unitsPerRun)
+                .collect(Collectors.toList());
+        if (next.isEmpty() && !units.isEmpty()) {
+            cursor = "";
+            next = units.stream().limit(unitsPerRun).collect(Collectors.toList());
+        }
+        return next;
+    }
+
+    private long[] loadReferencedFingerprints() {
+        LongStream.Builder fingerprints = LongStream.builder();
+
+        Long after = 0L;
+        while (true) {
+            List<Object[]> page = productRepository.findImageUrlsAfter(after, PageRequest.of(0, chunkSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            Long upTo = (Long) page.get(page.size() - 1)[0];
+            for (Object[] row : page) {
+                addFingerprint(fingerprints, (String) row[1]);
+            }
+            for (String url : productRepository.findAdditionalImagesBetween(after, upTo)) {
+                addFingerprint(fingerprints, url);
+            }
+            after = upTo;
+        }
+
+        after = 0L;
+        while (true) {
+            List<Object[]> page = shopRepository.findLogoUrlsAfter(after, PageRequest.of(0, chunkSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            for (Object[] row : page) {
+                addFingerprint(fingerprints, (String) row[1]);
+            }
+            after = (Long) page.get(page.size() - 1)[0];
+        }
+
+        return fingerprints.build().sorted().distinct().toArray();
+    }
+
+    private void addFingerprint(LongStream.Builder fingerprints, String url) {
+        imageStorageService.relativePathOf(url).ifPresent(relative -> fingerprints.add(fingerprint(relative)));
+    }
+
+    /**
+     * For content-addressed files, drops the blob row as long as nothing has referenced it
+     * since the cutoff. Returns false if the blob is still in use.
+     */
+    private boolean releaseBlob(String relative, Instant cutoff) {
+        Optional<String> hash = imageStorageService.hashOf(ImageStorageService.URL_PREFIX + relative);
+        if (hash.isEmpty()) {
+            return true;
+        }
+        LocalDateTime cutoffTime = LocalDateTime.ofInstant(cutoff, ZoneId.systemDefault());
+        return imageBlobRepository.deleteUnreferenced(hash.get(), cutoffTime) > 0
+                || imageBlobRepository.findByHash(hash.get()).isEmpty();
+    }
+
+    private void quarantine(Path root, Path file, String relative) throws IOException {
+        imageVariantService.deleteVariants(ImageStorageService.URL_PREFIX + relative);
+
+        Path target = root.resolve(TRASH_DIR).resolve(relative);
+        Files.createDirectories(target.getParent());
+        Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+        // The quarantine period counts from when the file was moved, not when it was uploaded
+        Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+        log.debug("Quarantined unreferenced image {}", relative);
+    }
+
+    private int purgeTrash(Path trash) throws IOException, InterruptedException {
+        if (!Files.isDirectory(trash)) {
+            return 0;
+        }
+        Instant cutoff = Instant.now().minus(quarantinePeriod);
+        int purged = 0;
+        try (Stream<Path> files = Files.walk(trash)) {
+            Iterator<Path> iterator = files.iterator();
+            while (iterator.hasNext()) {
+                Path file = iterator.next();
+                if (Files.isRegularFile(file) && Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    Files.deleteIfExists(file);
+                    purged++;
+                    pace();
+                }
+            }
+        }
+        return purged;
+    }
+
+    // Staging files are named by the upload, not by content, so age is the only test
+    private int purgeStaging(Path tmp) throws IOException, InterruptedException {
+        if (!Files.isDirectory(tmp)) {
+            return 0;
+        }
+        Instant cutoff = Instant.now().minus(gracePeriod);
+        int removed = 0;
+        try (Stream<Path> files = Files.list(tmp)) {
+            Iterator<Path> iterator = files.iterator();
+            while (iterator.hasNext()) {
+                Path file = iterator.next();
+                try {
+                    if (Files.isRegularFile(file) && Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                        Files.deleteIfExists(file);
+                        removed++;
+                        pace();
+                    }
+                } catch (NoSuchFileException e) {
+                    // Committed or discarded while we looked
+                }
+            }
+        }
+        return removed;
+    }
+
+    private void pace() throws InterruptedException {
+        if (pauseMillis > 0) {
+            Thread.sleep(pauseMillis);
+        }
+    }
+
+    private String relativize(Path root, Path path) {
+        return root.relativize(path).toString().replace('\\', '/');
+    }
+
+    // 64-bit FNV-1a over the path's UTF-8 bytes
+    private static long fingerprint(String relativePath) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : relativePath.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,333 @@
+package com.ecommerce.service;
+
+import com.ecommerce.exception.InvalidRequestException;
+import com.ecommerce.model.ImageBlob;
+import com.ecommerce.repository.ImageBlobRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed image store. Files live at objects/{first two hex chars}/{sha256}.{ext}
+ * under file.upload-dir, so a URL never changes meaning and identical uploads share one blob.
+ * The image_blobs table tracks how many entity fields reference each blob.
+ */
+@Service
+public class ImageStorageService {
+
+    public static final String URL_PREFIX = "/images/";
+    public static final String OBJECTS_DIR = "objects";
+    // Uploads being staged; anything left here is swept by ImageGarbageCollector
+    public static final String TMP_DIR = "tmp";
+
+    private static final int WRITE_CHUNK = 256 * 1024;
+    private static final Pattern SAFE_EXTENSION = Pattern.compile("[a-z0-9]{1,5}");
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+    // Working directories under the upload root that are never served as images
+    private static final Set<String> INTERNAL_DIRS =
+            Set.of(TMP_DIR, ImageVariantService.VARIANTS_DIR, ImageGarbageCollector.TRASH_DIR);
+
+    private final ImageBlobRepository imageBlobRepository;
+    private final Path root;
+    private final String publicBaseUrl;
+
+    public ImageStorageService(ImageBlobRepository imageBlobRepository,
+                               @Value("${file.upload-dir:uploads}") String uploadDir,
+                               @Value("${app.public-base-url:http://localhost:8081}") String publicBaseUrl) {
+        this.imageBlobRepository = imageBlobRepository;
+        this.root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.publicBaseUrl = publicBaseUrl;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    public StoredFile store(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return store(in, file.getOriginalFilename());
+        }
+    }
+
+    public StoredFile store(InputStream source, String originalFilename) throws IOException {
+        return commit(stage(source, originalFilename, Long.MAX_VALUE, null));
+    }
+
+    /**
+     * Streams an upload once into a temp file under tmp/ while computing its SHA-256.
+     * This is the only step that has to consume the source; {@link #commit} can run later
+     * on another thread.
+     *
+     * The source is read a chunk at a time with nothing held; a permit from {@code diskWrites}
+     * (if given) is only taken to write each chunk, so a slow client never holds one.
+     *
+     * @throws InvalidRequestException if the source is longer than {@code maxBytes}
+     */
+    public StagedFile stage(InputStream source, String originalFilename, long maxBytes, Semaphore diskWrites)
+            throws IOException {
+        Path tmpDir = root.resolve(TMP_DIR);
+        Files.createDirectories(tmpDir);
+
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(tmpDir, "upload-", ".tmp");
+        try {
+            long size;
+            try (ReadableByteChannel in = Channels.newChannel(new DigestInputStream(source, digest));
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                size = transfer(in, out, maxBytes, diskWrites);
+            }
+            if (size > maxBytes) {
+                throw new InvalidRequestException("File " + originalFilename + " exceeds the maximum upload size");
+            }
+            return new StagedFile(temp, HexFormat.of().formatHex(digest.digest()), size, extensionOf(originalFilename));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Moves a staged file into its content-addressed location. If a blob with the same
+     * hash already exists the staged copy is discarded and the existing URL is returned.
+     */
+    public StoredFile commit(StagedFile staged) throws IOException {
+        Path temp = staged.getTemp();
+        String hash = staged.getHash();
+        try {
+            Optional<ImageBlob> existing = imageBlobRepository.findByHash(hash);
+            if (existing.isPresent()) {
+                Path current = resolve(existing.get().getPath());
+                if (Files.exists(current)) {
+                    // Restarts the garbage collector's grace period for content that is about to be referenced again
+                    Files.setLastModifiedTime(current, FileTime.from(Instant.now()));
+                    return toStoredFile(existing.get(), true);
+                }
+            }
+
+            String path = URL_PREFIX + OBJECTS_DIR + "/" + hash.substring(0, 2) + "/" + hash + staged.getExtension();
+            Path target = resolve(path);
+            Files.createDirectories(target.getParent());
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            ImageBlob blob = existing.orElseGet(ImageBlob::new);
+            blob.setHash(hash);
+            blob.setPath(path);
+            blob.setSize(staged.getSize());
+            try {
+                blob = imageBlobRepository.save(blob);
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent upload of the same content won the insert; its row describes the same file.
+                blob = imageBlobRepository.findByHash(hash).orElseThrow(() -> e);
+            }
+            return toStoredFile(blob, false);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Drops a staged file that will never be committed.
+     */
+    public void discard(StagedFile staged) {
+        try {
+            Files.deleteIfExists(staged.getTemp());
+        } catch (IOException e) {
+            // Left for the garbage collector's sweep of tmp/
+        }
+    }
+
+    public Path resolve(String path) {
+        String relative = path.startsWith(URL_PREFIX) ? path.substring(URL_PREFIX.length()) : path;
+        Path resolved = root.resolve(relative).normalize();
+        if (!resolved.startsWith(root)) {
+            throw new IllegalArgumentException("Path escapes upload directory: " + path);
+        }
+        return resolved;
+    }
+
+    /**
+     * Like {@link #resolve(String)}, but also rejects paths into the internal directories:
+     * staging files in tmp/, quarantined files in .trash/ and variants, which are only
+     * served through their original's URL.
+     */
+    public Path resolvePublic(String path) {
+        Path resolved = resolve(path);
+        Path relative = root.relativize(resolved);
+        if (relative.getNameCount() > 0 && INTERNAL_DIRS.contains(relative.getName(0).toString())) {
+            throw new IllegalArgumentException("Path is not a public image: " + path);
+        }
+        return resolved;
+    }
+
+    /**
+     * Returns the path relative to the upload root that a stored image URL (absolute or
+     * relative) points at, e.g. objects/ab/ab12...ef.png, percent-decoded as ImageController
+     * decodes request paths. Empty for URLs outside /images/.
+     */
+    public Optional<String> relativePathOf(String url) {
+        if (url == null) {
+            return Optional.empty();
+        }
+        int start = url.indexOf(URL_PREFIX);
+        if (start < 0) {
+            return Optional.empty();
+        }
+        int query = url.indexOf('?', start);
+        String relative = UriUtils.decode(url.substring(start + URL_PREFIX.length(), query < 0 ? url.length() : query),
+                StandardCharsets.UTF_8);
+        return relative.isEmpty() ? Optional.empty() : Optional.of(relative);
+    }
+
+    /**
+     * Extracts the blob hash from a stored image URL (absolute or relative).
+     * Returns empty for URLs that don't point into the content-addressed store.
+     */
+    public Optional<String> hashOf(String url) {
+        if (url == null || !url.contains(URL_PREFIX + OBJECTS_DIR + "/")) {
+            return Optional.empty();
+        }
+        int query = url.indexOf('?');
+        String path = query < 0 ? url : url.substring(0, query);
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        int dot = name.indexOf('.');
+        String hash = dot < 0 ? name : name.substring(0, dot);
+        return SHA256_HEX.matcher(hash).matches() ? Optional.of(hash) : Optional.empty();
+    }
+
+    /**
+     * Moves references from the image URLs an entity held before a write to the ones it
+     * holds after. URLs present in both are left untouched.
+     */
+    public void updateReferences(Collection<String> before, Collection<String> after) {
+        Map<String, Integer> deltas = new HashMap<>();
+        for (String url : after) {
+            hashOf(url).ifPresent(hash -> deltas.merge(hash, 1, Integer::sum));
+        }
+        for (String url : before) {
+            hashOf(url).ifPresent(hash -> deltas.merge(hash, -1, Integer::sum));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        deltas.forEach((hash, delta) -> {
+            if (delta != 0) {
+                imageBlobRepository.adjustRefCount(hash, delta, now);
+            }
+        });
+    }
+
+    private StoredFile toStoredFile(ImageBlob blob, boolean duplicate) {
+        return new StoredFile(blob.getHash(), blob.getPath(), publicBaseUrl + blob.getPath(), blob.getSize(), duplicate);
+    }
+
+    // Stops one byte past maxBytes so an oversized source is detected without reading all of it.
+    private long transfer(ReadableByteChannel in, FileChannel out, long maxBytes, Semaphore diskWrites)
+            throws IOException {
+        long limit = maxBytes == Long.MAX_VALUE ? maxBytes : maxBytes + 1;
+        ByteBuffer buffer = ByteBuffer.allocate(WRITE_CHUNK);
+        long position = 0;
+        boolean eof = false;
+        while (!eof && position < limit) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), limit - position));
+            while (buffer.hasRemaining() && !eof) {
+                eof = in.read(buffer) < 0;
+            }
+            buffer.flip();
+            if (!buffer.hasRemaining()) {
+                break;
+            }
+            acquire(diskWrites);
+            try {
+                while (buffer.hasRemaining()) {
+                    position += out.write(buffer, position);
+                }
+            } finally {
+                if (diskWrites != null) {
+                    diskWrites.release();
+                }
+            }
+        }
+        return position;
+    }
+
+    private void acquire(Semaphore diskWrites) throws IOException {
+        if (diskWrites == null) {
+            return;
+        }
+        try {
+            diskWrites.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to write upload", e);
+        }
+    }
+
+    private String extensionOf(String originalFilename) {
+        String extension = StringUtils.getFilenameExtension(StringUtils.cleanPath(String.valueOf(originalFilename)));
+        if (extension == null) {
+            return "";
+        }
+        extension = extension.toLowerCase(Locale.ROOT);
+        return SAFE_EXTENSION.matcher(extension).matches() ? "." + extension : "";
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class StagedFile {
+        private final Path temp;
+        private final String hash;
+        private final long size;
+        private final String extension;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class StoredFile {
+        private final String hash;
+        private final String path;
+        private final String url;
+        private final long size;
+        private final boolean duplicate;
+    }
+}
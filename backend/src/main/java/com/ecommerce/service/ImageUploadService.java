@@ -0,0 +1,97 @@
+package com.ecommerce.service;
+
+import com.ecommerce.config.ExecutorFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Front door for image uploads. Each chunk written to disk takes a permit from a
+ * process-wide semaphore so a burst of large batches can't saturate the disk; reading from
+ * the client happens between permits, so slow uploads don't block others. The rest of the work
+ * (dedupe lookup, rename into place, blob row, variant scheduling) runs on a bounded
+ * executor so a batch finishes its files concurrently.
+ */
+@Service
+public class ImageUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageUploadService.class);
+
+    private final ImageStorageService imageStorageService;
+    private final ImageVariantService imageVariantService;
+    private final Semaphore diskWrites;
+    private final ExecutorService executor;
+    private final long maxFileSize;
+
+    public ImageUploadService(ImageStorageService imageStorageService,
+                              ImageVariantService imageVariantService,
+                              ExecutorFactory executorFactory,
+                              @Value("${app.uploads.max-concurrent-writes:8}") int maxConcurrentWrites,
+                              @Value("${app.uploads.workers:8}") int workers,
+                              @Value("${app.uploads.queue-capacity:64}") int queueCapacity,
+                              @Value("${spring.servlet.multipart.max-file-size:10MB}") DataSize maxFileSize) {
+        this.imageStorageService = imageStorageService;
+        this.imageVariantService = imageVariantService;
+        this.diskWrites = new Semaphore(maxConcurrentWrites, true);
+        this.maxFileSize = maxFileSize.toBytes();
+        // When the pool is saturated the request thread finishes the file itself, which slows
+        // down parsing of the next part instead of dropping work.
+        this.executor = executorFactory.blocking("image-upload", workers, queueCapacity);
+    }
+
+    public ImageStorageService.StoredFile store(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return finish(stage(in, file.getOriginalFilename()));
+        }
+    }
+
+    /**
+     * Consumes {@code source} on the calling thread (it is usually one part of a multipart
+     * stream and can't be read later), then completes the upload in the background.
+     */
+    public CompletableFuture<ImageStorageService.StoredFile> storeAsync(InputStream source, String originalFilename)
+            throws IOException {
+        ImageStorageService.StagedFile staged = stage(source, originalFilename);
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return finish(staged);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, executor);
+        } catch (RuntimeException e) {
+            imageStorageService.discard(staged);
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private ImageStorageService.StagedFile stage(InputStream source, String originalFilename) throws IOException {
+        return imageStorageService.stage(source, originalFilename, maxFileSize, diskWrites);
+    }
+
+    private ImageStorageService.StoredFile finish(ImageStorageService.StagedFile staged) throws IOException {
+        ImageStorageService.StoredFile stored = imageStorageService.commit(staged);
+        if (!stored.isDuplicate()) {
+            imageVariantService.scheduleVariants(stored.getPath());
+        }
+        log.debug("Stored upload {} ({} bytes, duplicate={})", stored.getPath(), stored.getSize(), stored.isDuplicate());
+        return stored;
+    }
+}
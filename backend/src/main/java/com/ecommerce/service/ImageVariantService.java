@@ -0,0 +1,297 @@
+package com.ecommerce.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates fixed-width, recompressed copies of stored images on a small bounded
+ * worker pool. Variants live under variants/ mirroring the original's path, e.g.
+ * objects/ab/{hash}.png -> variants/objects/ab/{hash}_w480.png. A variant at least as wide
+ * as its source, or of a source ImageIO can't decode, is recorded as an empty marker file
+ * ({hash}_w480.png.original) and the original is served in its place without decoding again.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantService.class);
+
+    public static final String VARIANTS_DIR = "variants";
+    private static final String ORIGINAL_MARKER_SUFFIX = ".original";
+
+    private static final float JPEG_QUALITY = 0.82f;
+    private static final long LAZY_GENERATION_TIMEOUT_SECONDS = 10;
+
+    public enum Variant {
+        THUMB(160), CARD(480), DETAIL(1024);
+
+        private final int width;
+
+        Variant(int width) {
+            this.width = width;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+    }
+
+    private final ImageStorageService imageStorageService;
+    private final ThreadPoolExecutor executor;
+    private final Map<Path, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    public ImageVariantService(ImageStorageService imageStorageService,
+                               @Value("${app.images.variant-workers:2}") int workers,
+                               @Value("${app.images.variant-queue-capacity:200}") int queueCapacity) {
+        this.imageStorageService = imageStorageService;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variant-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queues generation of every variant narrower than the original, marking the rest as
+     * served by the original. If the queue is full the work is dropped; variants are then
+     * produced lazily on first request.
+     */
+    public void scheduleVariants(String path) {
+        try {
+            executor.execute(() -> generateAll(path));
+        } catch (RejectedExecutionException e) {
+            log.debug("Variant queue full, deferring variants for {}", path);
+        }
+    }
+
+    /**
+     * Picks the smallest variant at least {@code requestedWidth} wide, generating it on a
+     * miss. Falls back to the original when no variant is narrower than the source or the
+     * source can't be decoded.
+     */
+    public Path resolve(String path, int requestedWidth) {
+        Path original = imageStorageService.resolve(path);
+        Variant variant = nearestVariant(requestedWidth);
+        if (variant == null || !Files.isRegularFile(original)) {
+            return original;
+        }
+
+        Path variantFile = variantPath(path, variant);
+        if (Files.isRegularFile(variantFile)) {
+            return variantFile;
+        }
+        if (Files.exists(originalMarker(variantFile))) {
+            return original;
+        }
+
+        CompletableFuture<Void> created = new CompletableFuture<>();
+        CompletableFuture<Void> pending = inFlight.putIfAbsent(variantFile, created);
+        if (pending == null) {
+            pending = created;
+            try {
+                executor.execute(() -> {
+                    try {
+                        generate(original, path, variant);
+                        created.complete(null);
+                    } catch (Throwable t) {
+                        created.completeExceptionally(t);
+                    } finally {
+                        inFlight.remove(variantFile, created);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(variantFile, created);
+                created.completeExceptionally(e);
+            }
+        }
+
+        try {
+            pending.get(LAZY_GENERATION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.debug("Lazy variant generation failed for {}: {}", path, e.getMessage());
+        }
+        return Files.isRegularFile(variantFile) ? variantFile : original;
+    }
+
+    /**
+     * Removes every generated variant of an image; they are regenerated on demand if the
+     * image is requested again.
+     */
+    public void deleteVariants(String path) throws IOException {
+        for (Variant variant : Variant.values()) {
+            Path variantFile = variantPath(path, variant);
+            Files.deleteIfExists(variantFile);
+            Files.deleteIfExists(originalMarker(variantFile));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Variant nearestVariant(int requestedWidth) {
+        for (Variant variant : Variant.values()) {
+            if (variant.getWidth() >= requestedWidth) {
+                return variant;
+            }
+        }
+        return null;
+    }
+
+    private void generateAll(String path) {
+        Path original = imageStorageService.resolve(path);
+        try {
+            BufferedImage source = ImageIO.read(original.toFile());
+            for (Variant variant : Variant.values()) {
+                Path target = variantPath(path, variant);
+                if (source != null && variant.getWidth() < source.getWidth()) {
+                    write(source, target, variant.getWidth());
+                } else {
+                    markServeOriginal(target);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to generate variants for {}: {}", path, e.getMessage());
+        }
+    }
+
+    private void generate(Path original, String path, Variant variant) throws IOException {
+        Path target = variantPath(path, variant);
+        if (Files.isRegularFile(target) || Files.exists(originalMarker(target))) {
+            return;
+        }
+        BufferedImage source = ImageIO.read(original.toFile());
+        if (source != null && variant.getWidth() < source.getWidth()) {
+            write(source, target, variant.getWidth());
+        } else {
+            markServeOriginal(target);
+        }
+    }
+
+    // A stored image's bytes don't change under its path, so one decode's outcome holds for every later request
+    private void markServeOriginal(Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try {
+            Files.createFile(originalMarker(target));
+        } catch (FileAlreadyExistsException e) {
+            // Another worker got there first
+        }
+    }
+
+    private Path originalMarker(Path variantFile) {
+        return variantFile.resolveSibling(variantFile.getFileName() + ORIGINAL_MARKER_SUFFIX);
+    }
+
+    private Path variantPath(String path, Variant variant) {
+        Path original = imageStorageService.resolve(path);
+        String relative = imageStorageService.getRoot().relativize(original).toString().replace('\\', '/');
+        int dot = relative.lastIndexOf('.');
+        String base = dot > relative.lastIndexOf('/') ? relative.substring(0, dot) : relative;
+        return imageStorageService.getRoot()
+                .resolve(VARIANTS_DIR)
+                .resolve(base + "_w" + variant.getWidth() + "." + outputFormat(relative));
+    }
+
+    private String outputFormat(String path) {
+        String lower = path.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".png") || lower.endsWith(".gif") ? "png" : "jpg";
+    }
+
+    private void write(BufferedImage source, Path target, int width) throws IOException {
+        if (Files.isRegularFile(target)) {
+            return;
+        }
+        String format = outputFormat(target.toString());
+        BufferedImage scaled = scale(source, width, "png".equals(format));
+
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".variant-", ".tmp");
+        try {
+            if ("png".equals(format)) {
+                ImageIO.write(scaled, "png", temp.toFile());
+            } else {
+                writeJpeg(scaled, temp);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // Halves repeatedly before the final step, which keeps bilinear scaling from aliasing on large reductions.
+    private BufferedImage scale(BufferedImage source, int targetWidth, boolean keepAlpha) {
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+        int type = keepAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                if (!keepAlpha) {
+                    g.setColor(Color.WHITE);
+                    g.fillRect(0, 0, width, height);
+                }
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+
+        return current;
+    }
+}
@@ -1,5 +1,7 @@
 package com.ecommerce.service;
 
+import com.ecommerce.config.ReadFromPrimary;
+import com.ecommerce.dto.FieldSelection;
 import com.ecommerce.dto.OrderDto;
 import com.ecommerce.dto.OrderItemDto;
 import com.ecommerce.exception.InvalidRequestException;
@@ -7,118 +9,277 @@ import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.Order;
 import com.ecommerce.model.OrderItem;
 import com.ecommerce.model.Product;
-import com.ecommerce.model.User;
 import com.ecommerce.repository.OrderRepository;
 import com.ecommerce.repository.ProductRepository;
 import com.ecommerce.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Orders live on the shard of their user (see {@link OrderShards}); stock lives in the main
+ * database. Checkout therefore reserves stock in one transaction on the main database and
+ * writes the order in another on the user's shard, handing the stock back if the second fails.
+ */
 @Service
 public class OrderService {
     
+    private static final Logger log = LoggerFactory.getLogger(OrderService.class);
+    
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
+    private final OrderShards orderShards;
+    private final CartService cartService;
     
-    public OrderService(OrderRepository orderRepository, UserRepository userRepository, ProductRepository productRepository) {
+    public OrderService(OrderRepository orderRepository, UserRepository userRepository, ProductRepository productRepository,
+                        OrderShards orderShards, CartService cartService) {
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
         this.productRepository = productRepository;
+        this.orderShards = orderShards;
+        this.cartService = cartService;
     }
     
-    public List<OrderDto> getOrdersByUserId(Long userId) {
+    /**
+     * The user's orders. A ?fields= selection without items reads only the selected order
+     * columns; items (and the payment join) are only loaded when asked for.
+     */
+    @ReadFromPrimary
+    public List<OrderDto> getOrdersByUserId(Long userId, FieldSelection fields) {
         if (!userRepository.existsById(userId)) {
             throw new ResourceNotFoundException("User", "id", userId);
         }
         
-        return orderRepository.findByUserId(userId).stream()
+        int shard = orderShards.shardOfUser(userId);
+        if (!fields.includes("items")) {
+            return orderShards.read(shard, () -> orderRepository.findListing(fields.getProperties(),
+                    (root, query, cb) -> cb.equal(root.get("user").get("id"), userId), Sort.unsorted(), 0));
+        }
+        return orderShards.read(shard, () -> orderRepository.findByUserId(userId).stream()
                 .map(this::mapOrderToDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
     
+    @ReadFromPrimary
     public OrderDto getOrderById(Long orderId, Long userId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
-        
-        // Check if the order belongs to the user
-        if (!order.getUser().getId().equals(userId)) {
-            throw new InvalidRequestException("Order does not belong to the user");
-        }
-        
-        return mapOrderToDto(order);
+        return orderShards.read(orderShards.shardOfId(orderId), () -> {
+            Order order = orderRepository.findWithItemsById(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+            
+            // Check if the order belongs to the user
+            if (!order.getUser().getId().equals(userId)) {
+                throw new InvalidRequestException("Order does not belong to the user");
+            }
+            
+            return mapOrderToDto(order);
+        });
     }
     
+    @ReadFromPrimary
     public OrderDto getOrderByOrderNumber(String orderNumber, Long userId) {
-        Order order = orderRepository.findByOrderNumber(orderNumber)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "orderNumber", orderNumber));
-        
-        if (!order.getUser().getId().equals(userId)) {
-            throw new InvalidRequestException("Order does not belong to the user");
+        return orderShards.read(orderShards.shardOfOrderNumber(orderNumber), () -> {
+            Order order = orderRepository.findByOrderNumber(orderNumber)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order", "orderNumber", orderNumber));
+            
+            if (!order.getUser().getId().equals(userId)) {
+                throw new InvalidRequestException("Order does not belong to the user");
+            }
+            
+            return mapOrderToDto(order);
+        });
+    }
+    
+    /**
+     * The most recent orders across all shards, newest first; each shard is queried in
+     * parallel for its own newest {@code limit} and the results are merged.
+     */
+    public List<OrderDto> getRecentOrders(Order.OrderStatus status, int limit, FieldSelection fields) {
+        List<OrderDto> orders;
+        if (!fields.includes("items")) {
+            // createdAt is needed for the merge even when it isn't returned
+            Set<String> properties = new HashSet<>(fields.getProperties());
+            properties.add("createdAt");
+            Sort newestFirst = Sort.by(Sort.Direction.DESC, "createdAt");
+            orders = orderShards.readAll(shard -> orderRepository.findListing(properties,
+                    status != null ? (root, query, cb) -> cb.equal(root.get("status"), status) : null,
+                    newestFirst, limit));
+        } else {
+            PageRequest page = PageRequest.of(0, limit);
+            orders = orderShards.readAll(shard -> (status != null
+                            ? orderRepository.findByStatusOrderByCreatedAtDesc(status, page)
+                            : orderRepository.findAllByOrderByCreatedAtDesc(page)).stream()
+                            .map(this::mapOrderToDto)
+                            .collect(Collectors.toList()));
         }
-        
-        return mapOrderToDto(order);
+        return orders.stream()
+                .sorted(Comparator.comparing(OrderDto::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())))
+                .limit(limit)
+                .collect(Collectors.toList());
     }
     
-    @Transactional
     public OrderDto createOrder(OrderDto orderDto, Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        return placeOrder(orderDto, userId, null);
+    }
+    
+    /**
+     * Places an order for everything in the user's server-side cart, at current prices, and
+     * empties the cart. Checkouts of the same cart run one at a time.
+     */
+    public OrderDto createOrderFromCart(Long userId, String shippingAddress, String billingAddress) {
+        return cartService.checkout(userId, checkout -> {
+            OrderDto orderDto = new OrderDto();
+            orderDto.setShippingAddress(shippingAddress);
+            orderDto.setBillingAddress(billingAddress);
+            orderDto.setItems(checkout.getLines().stream()
+                    .map(line -> {
+                        OrderItemDto item = new OrderItemDto();
+                        item.setProductId(line.getProductId());
+                        item.setQuantity(line.getQuantity());
+                        return item;
+                    })
+                    .collect(Collectors.toList()));
+            return placeOrder(orderDto, userId, checkout);
+        });
+    }
+    
+    /**
+     * For a cart checkout, the cart's lines are removed in the same main-database transaction
+     * that reserves the stock, and put back with the stock if the order can't be written. Once
+     * the order is on its shard there is nothing left to fail, so a retry can't order twice.
+     */
+    private OrderDto placeOrder(OrderDto orderDto, Long userId, CartService.Checkout checkout) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
         
-        Order order = new Order();
-        order.setUser(user);
-        order.setShippingAddress(orderDto.getShippingAddress());
-        order.setBillingAddress(orderDto.getBillingAddress());
-        order.setStatus(Order.OrderStatus.PENDING);
+        List<OrderItemDto> reserved = orderShards.write(OrderShards.MAIN, () -> {
+            List<OrderItemDto> items = reserveStock(orderDto.getItems());
+            if (checkout != null) {
+                checkout.removeLines();
+            }
+            return items;
+        });
         
-        Order savedOrder = orderRepository.save(order);
+        int shard = orderShards.shardOfUser(userId);
+        try {
+            return orderShards.write(shard, () -> {
+                Order order = new Order();
+                order.setOrderNumber(orderShards.newOrderNumber(shard));
+                order.setUser(userRepository.getReferenceById(userId));
+                order.setShippingAddress(orderDto.getShippingAddress());
+                order.setBillingAddress(orderDto.getBillingAddress());
+                order.setStatus(Order.OrderStatus.PENDING);
+                
+                for (OrderItemDto item : reserved) {
+                    OrderItem orderItem = new OrderItem();
+                    orderItem.setProduct(productRepository.getReferenceById(item.getProductId()));
+                    orderItem.setProductName(item.getProductName());
+                    orderItem.setQuantity(item.getQuantity());
+                    orderItem.setPrice(item.getPrice());
+                    order.addOrderItem(orderItem);
+                }
+                order.calculateTotalAmount();
+                
+                return mapOrderToDto(orderRepository.save(order));
+            });
+        } catch (RuntimeException e) {
+            log.warn("Order for user {} failed on shard {}, releasing reserved stock", userId, shard);
+            orderShards.write(OrderShards.MAIN, () -> {
+                releaseStock(reserved);
+                if (checkout != null) {
+                    checkout.restoreLines();
+                }
+                return null;
+            });
+            throw e;
+        }
+    }
+    
+    public OrderDto updateOrderStatus(Long orderId, Order.OrderStatus status, Long userId) {
+        return orderShards.write(orderShards.shardOfId(orderId), () -> {
+            Order order = orderRepository.findWithItemsById(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+            
+            if (!order.getUser().getId().equals(userId)) {
+                throw new InvalidRequestException("Order does not belong to the user");
+            }
+            
+            order.setStatus(status);
+            Order updatedOrder = orderRepository.save(order);
+            
+            return mapOrderToDto(updatedOrder);
+        });
+    }
+    
+    // Takes the items' quantities out of stock and returns them priced and named as of now.
+    // Every line that can't be ordered (deleted product, short stock) is reported in one error.
+    private List<OrderItemDto> reserveStock(List<OrderItemDto> items) {
+        Map<Long, Product> products = productsById(items);
+        List<String> unavailable = new ArrayList<>();
+        for (OrderItemDto itemDto : items) {
+            Product product = products.get(itemDto.getProductId());
+            if (product == null) {
+                unavailable.add("Product " + itemDto.getProductId() + " is no longer available");
+            } else if (product.getStockQuantity() < itemDto.getQuantity()) {
+                unavailable.add("Not enough stock for product: " + product.getName());
+            }
+        }
+        if (!unavailable.isEmpty()) {
+            throw new InvalidRequestException(unavailable.size() == 1 ? unavailable.get(0)
+                    : "Some items can't be ordered", unavailable);
+        }
         
-        for (OrderItemDto itemDto : orderDto.getItems()) {
-            Product product = productRepository.findById(itemDto.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product", "id", itemDto.getProductId()));
-
+        List<OrderItemDto> reserved = new ArrayList<>(items.size());
+        for (OrderItemDto itemDto : items) {
+            Product product = products.get(itemDto.getProductId());
+            // Still checked here for orders that list the same product more than once
             if (product.getStockQuantity() < itemDto.getQuantity()) {
                 throw new InvalidRequestException("Not enough stock for product: " + product.getName());
             }
             
-            OrderItem orderItem = new OrderItem();
-            orderItem.setOrder(savedOrder);
-            orderItem.setProduct(product);
-            orderItem.setQuantity(itemDto.getQuantity());
-            orderItem.setPrice(product.getPrice());
-            
-            savedOrder.addOrderItem(orderItem);
-            
-
             product.setStockQuantity(product.getStockQuantity() - itemDto.getQuantity());
-            productRepository.save(product);
+            
+            OrderItemDto item = new OrderItemDto();
+            item.setProductId(product.getId());
+            item.setProductName(product.getName());
+            item.setQuantity(itemDto.getQuantity());
+            item.setPrice(product.getPrice());
+            reserved.add(item);
         }
-
-        savedOrder.calculateTotalAmount();
-        
-
-        Order completedOrder = orderRepository.save(savedOrder);
-        
-        return mapOrderToDto(completedOrder);
+        return reserved;
     }
     
-    @Transactional
-    public OrderDto updateOrderStatus(Long orderId, Order.OrderStatus status, Long userId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
-        
-        if (!order.getUser().getId().equals(userId)) {
-            throw new InvalidRequestException("Order does not belong to the user");
+    private void releaseStock(List<OrderItemDto> reserved) {
+        Map<Long, Product> products = productsById(reserved);
+        for (OrderItemDto item : reserved) {
+            Product product = products.get(item.getProductId());
+            if (product != null) {
+                product.setStockQuantity(product.getStockQuantity() + item.getQuantity());
+            }
         }
-        
-        order.setStatus(status);
-        Order updatedOrder = orderRepository.save(order);
-        
-        return mapOrderToDto(updatedOrder);
+    }
+    
+    // Every product an order touches: cached ones from the second-level cache, the rest in one IN query
+    private Map<Long, Product> productsById(List<OrderItemDto> items) {
+        Set<Long> ids = items.stream()
+                .map(OrderItemDto::getProductId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return productRepository.findAllCached(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
     }
     
     private OrderDto mapOrderToDto(Order order) {
@@ -145,7 +306,7 @@ public class OrderService {
         OrderItemDto itemDto = new OrderItemDto();
         itemDto.setId(orderItem.getId());
         itemDto.setProductId(orderItem.getProduct().getId());
-        itemDto.setProductName(orderItem.getProduct().getName());
+        itemDto.setProductName(orderItem.getProductName());
         itemDto.setQuantity(orderItem.getQuantity());
         itemDto.setPrice(orderItem.getPrice());
         itemDto.setSubtotal(orderItem.getSubtotal());
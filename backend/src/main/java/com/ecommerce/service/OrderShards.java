@@ -0,0 +1,142 @@
+package com.ecommerce.service;
+
+import com.ecommerce.config.ExecutorFactory;
+import com.ecommerce.config.ShardRoutingDataSource;
+import com.ecommerce.config.ShardedIdGenerator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Places orders and payments on shards and runs work against a shard. With sharding
+ * disabled there is a single shard, the main database, and everything runs there.
+ *
+ * All of a user's orders live on the shard picked by hashing the user id. Order and payment
+ * ids carry their shard (see {@link ShardedIdGenerator}) and so do order numbers, so a
+ * lookup by id or number goes straight to one shard. The user-to-shard mapping depends on
+ * the shard count; changing the count means moving existing orders.
+ */
+@Service
+public class OrderShards {
+
+    /** The main database; it holds users, products and stock as well as shard 0's orders. */
+    public static final int MAIN = 0;
+
+    private static final Pattern ORDER_NUMBER = Pattern.compile("ORD-(\\d{2})-\\d+");
+
+    private final int shardCount;
+    private final TransactionTemplate readWrite;
+    private final TransactionTemplate readOnly;
+    private final ExecutorService executor;
+
+    public OrderShards(ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource,
+                       PlatformTransactionManager transactionManager, ExecutorFactory executorFactory) {
+        ShardRoutingDataSource routing = shardRoutingDataSource.getIfAvailable();
+        this.shardCount = routing != null ? routing.getShardCount() : 1;
+
+        // Each unit of shard work gets a fresh transaction so its connection comes from the bound shard
+        this.readWrite = new TransactionTemplate(transactionManager);
+        this.readWrite.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnly.setReadOnly(true);
+
+        this.executor = executorFactory.blocking("order-shard", shardCount, shardCount * 16);
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int shardOfUser(Long userId) {
+        if (shardCount == 1) {
+            return MAIN;
+        }
+        // Fibonacci hashing spreads sequential user ids evenly
+        return (int) Math.floorMod((userId * 0x9E3779B97F4A7C15L) >>> 32, (long) shardCount);
+    }
+
+    /**
+     * The shard an order or payment id was written to. Ids naming a shard that doesn't
+     * exist resolve to the main database, where the lookup simply finds nothing.
+     */
+    public int shardOfId(Long id) {
+        int shard = ShardedIdGenerator.shardOf(id);
+        return shard < shardCount ? shard : MAIN;
+    }
+
+    public int shardOfOrderNumber(String orderNumber) {
+        Matcher matcher = ORDER_NUMBER.matcher(orderNumber);
+        if (!matcher.matches()) {
+            return MAIN;
+        }
+        int shard = Integer.parseInt(matcher.group(1));
+        return shard < shardCount ? shard : MAIN;
+    }
+
+    public String newOrderNumber(int shard) {
+        return String.format("ORD-%02d-%d%03d", shard, System.currentTimeMillis(),
+                ThreadLocalRandom.current().nextInt(1000));
+    }
+
+    public <T> T write(int shard, Supplier<T> work) {
+        return inShard(shard, readWrite, work);
+    }
+
+    public <T> T read(int shard, Supplier<T> work) {
+        return inShard(shard, readOnly, work);
+    }
+
+    /**
+     * Runs a read-only query on every shard in parallel and concatenates the results in
+     * shard order.
+     */
+    public <T> List<T> readAll(IntFunction<List<T>> query) {
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> read(target, () -> query.apply(target)), executor));
+        }
+
+        List<T> results = new ArrayList<>();
+        for (CompletableFuture<List<T>> future : futures) {
+            try {
+                results.addAll(future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T inShard(int shard, TransactionTemplate transaction, Supplier<T> work) {
+        Integer previous = ShardRoutingDataSource.bindShard(shard);
+        try {
+            return transaction.execute(status -> work.get());
+        } finally {
+            ShardRoutingDataSource.bindShard(previous);
+        }
+    }
+}
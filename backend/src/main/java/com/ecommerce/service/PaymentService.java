@@ -7,46 +7,74 @@ import com.ecommerce.model.Order;
 import com.ecommerce.model.Payment;
 import com.ecommerce.repository.OrderRepository;
 import com.ecommerce.repository.PaymentRepository;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+@Lazy
 @Service
 public class PaymentService {
     
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
+    private final OrderShards orderShards;
     
-    public PaymentService(PaymentRepository paymentRepository, OrderRepository orderRepository) {
+    public PaymentService(PaymentRepository paymentRepository, OrderRepository orderRepository, OrderShards orderShards) {
         this.paymentRepository = paymentRepository;
         this.orderRepository = orderRepository;
+        this.orderShards = orderShards;
     }
     
+    // Payments live on their order's shard
     public PaymentDto getPaymentById(Long id) {
-        Payment payment = paymentRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Payment", "id", id));
-        
-        return mapPaymentToDto(payment);
+        return orderShards.read(orderShards.shardOfId(id), () -> {
+            Payment payment = paymentRepository.findWithOrderById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Payment", "id", id));
+            
+            return mapPaymentToDto(payment);
+        });
     }
     
     public PaymentDto getPaymentByOrderId(Long orderId, Long userId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
-        
-        if (!order.getUser().getId().equals(userId)) {
-            throw new InvalidRequestException("Order does not belong to the user");
-        }
-        
-        Payment payment = paymentRepository.findByOrderId(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Payment", "orderId", orderId));
-        
-        return mapPaymentToDto(payment);
+        return orderShards.read(orderShards.shardOfId(orderId), () -> {
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+            
+            if (!order.getUser().getId().equals(userId)) {
+                throw new InvalidRequestException("Order does not belong to the user");
+            }
+            
+            Payment payment = paymentRepository.findByOrderId(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Payment", "orderId", orderId));
+            
+            return mapPaymentToDto(payment);
+        });
     }
     
-    @Transactional
     public PaymentDto processPayment(PaymentDto paymentDto, Long userId) {
+        return orderShards.write(orderShards.shardOfId(paymentDto.getOrderId()), () -> createPayment(paymentDto, userId));
+    }
+    
+    public PaymentDto updatePaymentStatus(Long paymentId, Payment.PaymentStatus status, Long userId) {
+        return orderShards.write(orderShards.shardOfId(paymentId), () -> {
+            Payment payment = paymentRepository.findWithOrderById(paymentId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Payment", "id", paymentId));
+            
+
+            if (!payment.getOrder().getUser().getId().equals(userId)) {
+                throw new InvalidRequestException("Payment does not belong to the user");
+            }
+            
+            payment.setStatus(status);
+            Payment updatedPayment = paymentRepository.save(payment);
+            
+            return mapPaymentToDto(updatedPayment);
+        });
+    }
+    
+    private PaymentDto createPayment(PaymentDto paymentDto, Long userId) {
         Order order = orderRepository.findById(paymentDto.getOrderId())
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", paymentDto.getOrderId()));
         
@@ -75,23 +103,6 @@ public class PaymentService {
         return mapPaymentToDto(savedPayment);
     }
     
-    @Transactional
-    public PaymentDto updatePaymentStatus(Long paymentId, Payment.PaymentStatus status, Long userId) {
-        Payment payment = paymentRepository.findById(paymentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Payment", "id", paymentId));
-        
-
-        if (!payment.getOrder().getUser().getId().equals(userId)) {
-            throw new InvalidRequestException("Payment does not belong to the user");
-        }
-        
-        payment.setStatus(status);
-        Payment updatedPayment = paymentRepository.save(payment);
-        
-        return mapPaymentToDto(updatedPayment);
-    }
-    
-
     private String generateTransactionId() {
         return "TXN-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
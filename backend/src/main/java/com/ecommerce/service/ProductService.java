@@ -1,5 +1,7 @@
 package com.ecommerce.service;
 
+import com.ecommerce.dto.CategoryDto;
+import com.ecommerce.dto.FieldSelection;
 import com.ecommerce.dto.ProductDto;
 import com.ecommerce.exception.InvalidRequestException;
 import com.ecommerce.exception.ResourceNotFoundException;
@@ -10,59 +12,109 @@ import com.ecommerce.repository.CategoryRepository;
 import com.ecommerce.repository.ProductRepository;
 import com.ecommerce.repository.ShopRepository;
 
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
     
+    // Product ids per additionalImages query in ?fields= listings
+    private static final int IMAGE_LOOKUP_BATCH = 1000;
+    
+    public static final int MAX_BATCH_IDS = 500;
+    
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final ShopRepository shopRepository;
+    private final ImageStorageService imageStorageService;
+    private final CategoryCatalog categoryCatalog;
     
-    public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository, ShopRepository shopRepository) {
+    public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository, ShopRepository shopRepository,
+                          ImageStorageService imageStorageService, CategoryCatalog categoryCatalog) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
         this.shopRepository = shopRepository;
+        this.imageStorageService = imageStorageService;
+        this.categoryCatalog = categoryCatalog;
     }
     
-    public List<ProductDto> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(this::mapProductToDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<ProductDto> getAllProducts(FieldSelection fields) {
+        return listing(fields, productRepository::findAllWithShop, null);
     }
     
+    @Transactional(readOnly = true)
     public ProductDto getProductById(Long id) {
-        Product product = productRepository.findById(id)
+        Product product = productRepository.findWithShopById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
         
         return mapProductToDto(product);
     }
     
-    public List<ProductDto> getProductsByCategory(Long categoryId) {
-        if (!categoryRepository.existsById(categoryId)) {
-            throw new ResourceNotFoundException("Category", "id", categoryId);
+    /**
+     * The products with the given ids, in id order, in one query; ids that don't exist are
+     * left out. Used to refresh cart prices and stock before checkout.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductDto> getProductsByIds(Collection<Long> ids, FieldSelection fields) {
+        Set<Long> distinctIds = ids.stream().filter(Objects::nonNull).collect(Collectors.toCollection(TreeSet::new));
+        if (distinctIds.size() > MAX_BATCH_IDS) {
+            throw new InvalidRequestException("At most " + MAX_BATCH_IDS + " product ids can be looked up at once");
+        }
+        if (distinctIds.isEmpty()) {
+            return List.of();
         }
         
-        return productRepository.findByCategoryId(categoryId).stream()
-                .map(this::mapProductToDto)
-                .collect(Collectors.toList());
+        List<ProductDto> products = listing(fields, () -> productRepository.findWithShopByIdIn(distinctIds),
+                (root, query, cb) -> root.get("id").in(distinctIds));
+        products.sort(Comparator.comparing(ProductDto::getId));
+        return products;
+    }
+    
+    @Transactional(readOnly = true)
+    public List<ProductDto> getProductsByCategory(Long categoryId, boolean includeDescendants, FieldSelection fields) {
+        CategoryDto category = categoryCatalog.get(categoryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId));
+        
+        if (includeDescendants && category.getPath() != null) {
+            String pathPrefix = category.getPath();
+            return listing(fields, () -> productRepository.findByCategoryPathLike(pathPrefix + "%"),
+                    (root, query, cb) -> cb.like(root.join("category").<String>get("path"), pathPrefix + "%"));
+        }
+        return listing(fields, () -> productRepository.findByCategoryId(categoryId),
+                (root, query, cb) -> cb.equal(root.get("category").get("id"), categoryId));
     }
     
-    public List<ProductDto> getFeaturedProducts() {
-        return productRepository.findByFeatured(true).stream()
-                .map(this::mapProductToDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<ProductDto> getFeaturedProducts(FieldSelection fields) {
+        return listing(fields, () -> productRepository.findByFeatured(true),
+                (root, query, cb) -> cb.isTrue(root.<Boolean>get("featured")));
     }
     
-    public List<ProductDto> searchProducts(String keyword) {
-        return productRepository.searchProducts(keyword).stream()
-                .map(this::mapProductToDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<ProductDto> searchProducts(String keyword, FieldSelection fields) {
+        String pattern = "%" + keyword.toLowerCase(Locale.ROOT) + "%";
+        return listing(fields, () -> productRepository.searchProducts(keyword),
+                (root, query, cb) -> cb.or(
+                        cb.like(cb.lower(root.<String>get("name")), pattern),
+                        cb.like(cb.lower(root.<String>get("description")), pattern)));
     }
     
+    @Transactional
     public ProductDto createProduct(ProductDto productDto, Long userId) {
 
         Shop shop = shopRepository.findByOwnerId(userId)
@@ -73,17 +125,22 @@ public class ProductService {
         product.setDescription(productDto.getDescription());
         product.setPrice(productDto.getPrice());
         product.setImageUrl(productDto.getImageUrl());
+        product.setAdditionalImages(additionalImagesOf(productDto));
         product.setStockQuantity(productDto.getStockQuantity());
         product.setFeatured(productDto.isFeatured());
+        product.setCategory(categoryOf(productDto));
         product.setShop(shop); 
         
         Product savedProduct = productRepository.save(product);
+        imageStorageService.updateReferences(List.of(), imageUrlsOf(savedProduct));
+        categoryCatalog.productMoved(null, categoryIdOf(savedProduct));
         
         return mapProductToDto(savedProduct);
     }
     
+    @Transactional
     public ProductDto updateProduct(Long id, ProductDto productDto, Long userId) {
-        Product product = productRepository.findById(id)
+        Product product = productRepository.findWithShopById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
         
         
@@ -91,45 +148,123 @@ public class ProductService {
             throw new InvalidRequestException("User is not authorized to update this product");
         }
         
+        List<String> previousImageUrls = imageUrlsOf(product);
+        Long previousCategoryId = categoryIdOf(product);
+        
         product.setName(productDto.getName());
         product.setDescription(productDto.getDescription());
         product.setPrice(productDto.getPrice());
         product.setImageUrl(productDto.getImageUrl());
+        product.getAdditionalImages().clear();
+        product.getAdditionalImages().addAll(additionalImagesOf(productDto));
         product.setStockQuantity(productDto.getStockQuantity());
         product.setFeatured(productDto.isFeatured());
+        product.setCategory(categoryOf(productDto));
         
         Product updatedProduct = productRepository.save(product);
+        imageStorageService.updateReferences(previousImageUrls, imageUrlsOf(updatedProduct));
+        categoryCatalog.productMoved(previousCategoryId, categoryIdOf(updatedProduct));
         
         return mapProductToDto(updatedProduct);
     }
     
+    @Transactional
     public void deleteProduct(Long id, Long userId) {
-        if (!productRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Product", "id", id);
-        }
-
-        Product product = productRepository.findById(id)
+        Product product = productRepository.findWithShopById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
     
         if (!product.getShop().getOwner().getId().equals(userId)) {
             throw new InvalidRequestException("User is not authorized to delete this product");
         }
         
+        List<String> previousImageUrls = imageUrlsOf(product);
+        Long previousCategoryId = categoryIdOf(product);
         productRepository.deleteById(id);
+        imageStorageService.updateReferences(previousImageUrls, List.of());
+        categoryCatalog.productMoved(previousCategoryId, null);
     }
 
 
-    public List<ProductDto> getProductsByShop(Long shopId) {
+    @Transactional(readOnly = true)
+    public List<ProductDto> getProductsByShop(Long shopId, FieldSelection fields) {
         if (!shopRepository.existsById(shopId)) {
             throw new ResourceNotFoundException("Shop", "id", shopId);
         }
         
-        return productRepository.findByShopId(shopId).stream()
-                .map(this::mapProductToDto)
-                .collect(Collectors.toList());
+        return listing(fields, () -> productRepository.findByShopId(shopId),
+                (root, query, cb) -> cb.equal(root.get("shop").get("id"), shopId));
+    }
+    
+    /**
+     * A full listing loads entities through {@code entities}; a ?fields= listing reads only
+     * the selected columns of the products matching {@code where}, plus additional images
+     * when they were asked for.
+     */
+    private List<ProductDto> listing(FieldSelection fields, Supplier<List<Product>> entities,
+                                     Specification<Product> where) {
+        if (fields.isAll()) {
+            return entities.get().stream()
+                    .map(this::mapProductToDto)
+                    .collect(Collectors.toList());
+        }
+        
+        List<ProductDto> products = productRepository.findListing(fields.getProperties(), where);
+        if (fields.includes("categoryName")) {
+            for (ProductDto product : products) {
+                if (product.getCategoryId() != null) {
+                    categoryCatalog.get(product.getCategoryId()).ifPresent(category -> product.setCategoryName(category.getName()));
+                }
+            }
+        }
+        if (fields.includes("additionalImages")) {
+            Map<Long, List<String>> images = new HashMap<>();
+            List<Long> ids = products.stream().map(ProductDto::getId).collect(Collectors.toList());
+            for (int from = 0; from < ids.size(); from += IMAGE_LOOKUP_BATCH) {
+                List<Long> batch = ids.subList(from, Math.min(from + IMAGE_LOOKUP_BATCH, ids.size()));
+                for (Object[] row : productRepository.findAdditionalImagesByProductIds(batch)) {
+                    images.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((String) row[1]);
+                }
+            }
+            for (ProductDto product : products) {
+                product.setAdditionalImages(images.getOrDefault(product.getId(), new ArrayList<>()));
+            }
+        }
+        return products;
     }
     
 
+    private Category categoryOf(ProductDto productDto) {
+        Long categoryId = productDto.getCategoryId();
+        if (categoryId == null) {
+            return null;
+        }
+        if (!categoryCatalog.exists(categoryId)) {
+            throw new ResourceNotFoundException("Category", "id", categoryId);
+        }
+        return categoryRepository.getReferenceById(categoryId);
+    }
+    
+    private Long categoryIdOf(Product product) {
+        return product.getCategory() != null ? product.getCategory().getId() : null;
+    }
+    
+    private List<String> additionalImagesOf(ProductDto productDto) {
+        if (productDto.getAdditionalImages() == null) {
+            return new ArrayList<>();
+        }
+        return productDto.getAdditionalImages().stream()
+                .filter(url -> url != null && !url.isEmpty())
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+    
+    private List<String> imageUrlsOf(Product product) {
+        List<String> urls = new ArrayList<>(product.getAdditionalImages());
+        if (product.getImageUrl() != null) {
+            urls.add(product.getImageUrl());
+        }
+        return urls;
+    }
+    
     private ProductDto mapProductToDto(Product product) {
         ProductDto productDto = new ProductDto();
         productDto.setId(product.getId());
@@ -137,8 +272,15 @@ public class ProductService {
         productDto.setDescription(product.getDescription());
         productDto.setPrice(product.getPrice());
         productDto.setImageUrl(product.getImageUrl());
+        productDto.setAdditionalImages(new ArrayList<>(product.getAdditionalImages()));
         productDto.setStockQuantity(product.getStockQuantity());
         productDto.setFeatured(product.isFeatured());
+        
+        Long categoryId = categoryIdOf(product);
+        if (categoryId != null) {
+            productDto.setCategoryId(categoryId);
+            categoryCatalog.get(categoryId).ifPresent(category -> productDto.setCategoryName(category.getName()));
+        }
 
         if (product.getShop() != null) {
             productDto.setShopId(product.getShop().getId());
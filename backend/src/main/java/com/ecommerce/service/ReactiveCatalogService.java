@@ -0,0 +1,92 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.CategoryDto;
+import com.ecommerce.dto.ProductDto;
+import com.ecommerce.dto.ShopDto;
+import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.repository.ReactiveCatalogRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * R2DBC counterpart of the catalog reads in {@link ProductService},
+ * {@link ShopService} and {@link CategoryService}, returning the same DTOs. Results are
+ * streamed as rows arrive and only as fast as the client consumes them; additional
+ * images are loaded per batch of products rather than per product.
+ *
+ * Reads only: every write still goes through the JPA services.
+ *
+ * Nothing here blocks, but r2dbc-h2 does: it executes each query on the subscribing thread,
+ * so against H2 these reads occupy the caller's thread like the JPA ones do. The
+ * non-blocking behaviour needs a network driver such as r2dbc-postgresql.
+ *
+ * A product stream keeps its connection open while each batch's additional images are read
+ * on a second one, so a request needs two pooled connections at once.
+ * spring.r2dbc.pool.max-acquire-time makes a request that can't get its second connection
+ * fail instead of waiting forever on a pool held by other streams.
+ */
+@Service
+public class ReactiveCatalogService {
+
+    private final ReactiveCatalogRepository reactiveCatalogRepository;
+    private final int imageBatchSize;
+
+    public ReactiveCatalogService(ReactiveCatalogRepository reactiveCatalogRepository,
+                                  @Value("${app.reactive.image-batch-size:256}") int imageBatchSize) {
+        this.reactiveCatalogRepository = reactiveCatalogRepository;
+        this.imageBatchSize = imageBatchSize;
+    }
+
+    public Flux<ProductDto> getAllProducts() {
+        return withAdditionalImages(reactiveCatalogRepository.findProducts());
+    }
+
+    public Flux<ProductDto> getFeaturedProducts() {
+        return withAdditionalImages(reactiveCatalogRepository.findFeaturedProducts());
+    }
+
+    public Flux<ProductDto> getProductsByShop(Long shopId) {
+        return withAdditionalImages(reactiveCatalogRepository.findProductsByShopId(shopId));
+    }
+
+    public Mono<ProductDto> getProductById(Long id) {
+        return withAdditionalImages(reactiveCatalogRepository.findProductById(id).flux())
+                .next()
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Product", "id", id)));
+    }
+
+    public Flux<ShopDto> getAllShops() {
+        return reactiveCatalogRepository.findShops();
+    }
+
+    public Mono<ShopDto> getShopById(Long id) {
+        return reactiveCatalogRepository.findShopById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Shop", "id", id)));
+    }
+
+    public Flux<CategoryDto> getAllCategories() {
+        return reactiveCatalogRepository.findCategories();
+    }
+
+    private Flux<ProductDto> withAdditionalImages(Flux<ProductDto> products) {
+        // concatMap keeps product order and holds at most one batch in flight
+        return products
+                .buffer(imageBatchSize)
+                .concatMap(batch -> {
+                    List<Long> ids = batch.stream().map(ProductDto::getId).collect(Collectors.toList());
+                    return reactiveCatalogRepository.findAdditionalImages(ids)
+                            .flatMapIterable(images -> {
+                                for (ProductDto product : batch) {
+                                    product.setAdditionalImages(images.getOrDefault(product.getId(), new ArrayList<>()));
+                                }
+                                return batch;
+                            });
+                });
+    }
+}
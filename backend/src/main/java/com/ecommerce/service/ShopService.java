@@ -1,5 +1,7 @@
 package com.ecommerce.service;
 
+import com.ecommerce.config.ReadFromPrimary;
+import com.ecommerce.dto.FieldSelection;
 import com.ecommerce.dto.ShopDto;
 import com.ecommerce.exception.InvalidRequestException;
 import com.ecommerce.exception.ResourceNotFoundException;
@@ -7,31 +9,41 @@ import com.ecommerce.model.Shop;
 import com.ecommerce.model.User;
 import com.ecommerce.repository.ShopRepository;
 import com.ecommerce.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.HashSet;
+import java.util.Set;
 
 @Service
 public class ShopService {
     
+    private static final Logger log = LoggerFactory.getLogger(ShopService.class);
+    
+    public static final int DEFAULT_DIRECTORY_PAGE_SIZE = 24;
+    public static final int MAX_DIRECTORY_PAGE_SIZE = 100;
+    
+    // Every ShopDto property the directory listing can select
+    private static final Set<String> DIRECTORY_PROPERTIES =
+            Set.of("name", "description", "address", "logoUrl", "ownerId", "ownerName", "productCount");
+    
     private final ShopRepository shopRepository;
     private final UserRepository userRepository;
-    
-    @Value("${file.upload-dir:uploads}")
-    private String uploadDir;
+    private final ImageStorageService imageStorageService;
+    private final ImageUploadService imageUploadService;
+    private final TransactionTemplate transactionTemplate;
     
     @Value("${server.port}")
     private String serverPort;
@@ -39,24 +51,52 @@ public class ShopService {
     @Value("${server.address:localhost}")
     private String serverAddress;
     
-    public ShopService(ShopRepository shopRepository, UserRepository userRepository) {
+    public ShopService(ShopRepository shopRepository, UserRepository userRepository,
+                       ImageStorageService imageStorageService, ImageUploadService imageUploadService,
+                       PlatformTransactionManager transactionManager) {
         this.shopRepository = shopRepository;
         this.userRepository = userRepository;
+        this.imageStorageService = imageStorageService;
+        this.imageUploadService = imageUploadService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
     
-    public List<ShopDto> getAllShops() {
-        return shopRepository.findAll().stream()
-                .map(this::mapShopToDto)
-                .collect(Collectors.toList());
+    /**
+     * One page of the shop directory in id order, starting after the given shop id.
+     * The caller passes the last id of this page as {@code after} to get the next one.
+     * A null {@code size} returns every shop after the cursor. A {@code search} term keeps
+     * shops whose name or description contains it, ignoring case. With a ?fields= selection
+     * only the selected columns are read.
+     */
+    @Transactional(readOnly = true)
+    public List<ShopDto> getShopDirectoryPage(Long after, Integer size, String search, boolean includeProductCount,
+                                              FieldSelection fields) {
+        Long cursor = after != null ? after : 0L;
+        boolean searching = search != null && !search.isBlank();
+        if (!fields.isAll() || searching) {
+            Set<String> properties = new HashSet<>(fields.isAll() ? DIRECTORY_PROPERTIES : fields.getProperties());
+            if (!includeProductCount) {
+                properties.remove("productCount");
+            }
+            return shopRepository.findDirectoryListing(properties, cursor, searching ? search.trim() : null,
+                    size != null ? directoryPageSize(size) : 0);
+        }
+        Pageable page = size != null ? PageRequest.of(0, directoryPageSize(size)) : Pageable.unpaged();
+        return includeProductCount
+                ? shopRepository.findDirectoryPageWithProductCount(cursor, page)
+                : shopRepository.findDirectoryPage(cursor, page);
     }
     
+    @Transactional(readOnly = true)
     public ShopDto getShopById(Long id) {
-        Shop shop = shopRepository.findById(id)
+        Shop shop = shopRepository.findWithOwnerById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Shop", "id", id));
         
         return mapShopToDto(shop);
     }
     
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
     public ShopDto getShopByOwnerId(Long ownerId) {
         Shop shop = shopRepository.findByOwnerId(ownerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Shop", "ownerId", ownerId));
@@ -64,8 +104,9 @@ public class ShopService {
         return mapShopToDto(shop);
     }
     
+    @Transactional
     public ShopDto createShop(ShopDto shopDto, Long userId) {
-        System.out.println("ShopService.createShop called with userId: " + userId);
+        log.debug("Creating shop for userId: {}", userId);
         
         Shop shop = new Shop();
         shop.setName(shopDto.getName());
@@ -89,12 +130,14 @@ public class ShopService {
         });
         
         Shop savedShop = shopRepository.save(shop);
+        imageStorageService.updateReferences(List.of(), singletonOrEmpty(savedShop.getLogoUrl()));
         
         return mapShopToDto(savedShop);
     }
     
+    @Transactional
     public ShopDto updateShop(Long id, ShopDto shopDto, Long userId) {
-        Shop shop = shopRepository.findById(id)
+        Shop shop = shopRepository.findWithOwnerById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Shop", "id", id));
         
         if (!shop.getOwner().getId().equals(userId)) {
@@ -113,40 +156,36 @@ public class ShopService {
         shop.setDescription(shopDto.getDescription());
         shop.setAddress(shopDto.getAddress());
         
+        String previousLogoUrl = shop.getLogoUrl();
         if (shopDto.getLogoUrl() != null && !shopDto.getLogoUrl().equals(shop.getLogoUrl())) {
             shop.setLogoUrl(shopDto.getLogoUrl());
         }
         
         Shop updatedShop = shopRepository.save(shop);
+        imageStorageService.updateReferences(singletonOrEmpty(previousLogoUrl), singletonOrEmpty(updatedShop.getLogoUrl()));
         
         return mapShopToDto(updatedShop);
     }
     
+    /**
+     * Writes the file before opening a transaction, so no connection is held during the
+     * upload; only the logo swap itself runs transactionally.
+     */
     public Map<String, String> uploadShopLogo(Long shopId, MultipartFile file) throws IOException {
-        Shop shop = shopRepository.findById(shopId)
-                .orElseThrow(() -> new ResourceNotFoundException("Shop", "id", shopId));
-        
-        File uploadDirFile = new File(uploadDir + "/shops/" + shopId);
-        if (!uploadDirFile.exists()) {
-            uploadDirFile.mkdirs();
-        }
-        
-
-        String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
-        String fileExtension = "";
-        if (originalFilename.contains(".")) {
-            fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
+        if (!shopRepository.existsById(shopId)) {
+            throw new ResourceNotFoundException("Shop", "id", shopId);
         }
-        String filename = UUID.randomUUID().toString() + fileExtension;
         
-
-        Path targetLocation = Paths.get(uploadDir + "/shops/" + shopId + "/" + filename);
-        Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+        ImageStorageService.StoredFile stored = imageUploadService.store(file);
+        String fileUrl = stored.getPath();
         
-
-        String fileUrl = "/images/shops/" + shopId + "/" + filename;
-        shop.setLogoUrl(fileUrl);
-        shopRepository.save(shop);
+        transactionTemplate.executeWithoutResult(status -> {
+            Shop shop = shopRepository.findById(shopId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Shop", "id", shopId));
+            String previousLogoUrl = shop.getLogoUrl();
+            shop.setLogoUrl(fileUrl);
+            imageStorageService.updateReferences(singletonOrEmpty(previousLogoUrl), singletonOrEmpty(fileUrl));
+        });
         
 
         String fullFileUrl = "http://" + serverAddress + ":" + serverPort + fileUrl;
@@ -158,6 +197,14 @@ public class ShopService {
         return result;
     }
     
+    private List<String> singletonOrEmpty(String url) {
+        return url == null ? List.of() : List.of(url);
+    }
+    
+    public static int directoryPageSize(int requested) {
+        return Math.max(1, Math.min(requested, MAX_DIRECTORY_PAGE_SIZE));
+    }
+    
     private ShopDto mapShopToDto(Shop shop) {
         ShopDto shopDto = new ShopDto();
         shopDto.setId(shop.getId());
@@ -0,0 +1,84 @@
+package com.ecommerce.service;
+
+import com.ecommerce.config.ExecutorFactory;
+import com.ecommerce.dto.CategoryDto;
+import com.ecommerce.dto.FieldSelection;
+import com.ecommerce.dto.HomeDto;
+import com.ecommerce.dto.ProductDto;
+import com.ecommerce.dto.ShopDto;
+import com.ecommerce.dto.StorefrontDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Assembles the composite page payloads (shop storefront, home page) in one call.
+ * The parts are independent queries, so they run concurrently; each runs in its own
+ * read-only transaction because a JPA transaction is bound to a single thread.
+ */
+@Service
+public class StorefrontService {
+
+    private final ShopService shopService;
+    private final ProductService productService;
+    private final CategoryService categoryService;
+    private final TransactionTemplate readOnly;
+    private final ExecutorService executor;
+
+    public StorefrontService(ShopService shopService, ProductService productService, CategoryService categoryService,
+                             PlatformTransactionManager transactionManager, ExecutorFactory executorFactory,
+                             @Value("${app.storefront.workers:8}") int workers,
+                             @Value("${app.storefront.queue-capacity:100}") int queueCapacity) {
+        this.shopService = shopService;
+        this.productService = productService;
+        this.categoryService = categoryService;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        // Under saturation the request thread runs the query itself instead of failing
+        this.executor = executorFactory.blocking("storefront", workers, queueCapacity);
+    }
+
+    public StorefrontDto getStorefront(Long shopId) {
+        CompletableFuture<ShopDto> shop = read(() -> shopService.getShopById(shopId));
+        CompletableFuture<List<ProductDto>> products = read(() -> productService.getProductsByShop(shopId, FieldSelection.all()));
+        CompletableFuture<List<CategoryDto>> categories = read(categoryService::getAllCategories);
+
+        return new StorefrontDto(join(shop), join(products), join(categories));
+    }
+
+    public HomeDto getHome() {
+        CompletableFuture<List<ProductDto>> featured = read(() -> productService.getFeaturedProducts(FieldSelection.all()));
+        CompletableFuture<List<CategoryDto>> categories = read(categoryService::getAllCategories);
+
+        return new HomeDto(join(featured), join(categories));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> read(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> readOnly.execute(status -> query.get()), executor);
+    }
+
+    // Rethrows the query's own exception (e.g. ResourceNotFoundException) so the usual handlers apply
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.ecommerce.model.User;
 import com.ecommerce.repository.UserRepository;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class UserService {
@@ -19,6 +20,7 @@ public class UserService {
         this.passwordEncoder = passwordEncoder;
     }
 
+    @Transactional
     public UserDto createUser(SignupRequestDto signupRequest) {
         if (userRepository.existsByEmail(signupRequest.getEmail())) {
             throw new InvalidRequestException("Email already exists");
@@ -35,6 +37,7 @@ public class UserService {
         return mapUserToDto(savedUser);
     }
 
+    @Transactional(readOnly = true)
     public UserDto getUserByEmail(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new InvalidRequestException("User not found with email: " + email));
@@ -0,0 +1,139 @@
+-- Baseline schema. Hibernate only validates it (ddl-auto=validate), so every table, column,
+-- sequence and index the application relies on is declared here.
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    first_name VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(255),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE shops (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(100),
+    description VARCHAR(500),
+    address VARCHAR(200),
+    logo_url VARCHAR(255),
+    user_id BIGINT,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    CONSTRAINT uk_shops_name UNIQUE (name),
+    CONSTRAINT fk_shops_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+-- findByOwnerId on every product write and the owner's dashboard
+CREATE INDEX idx_shops_user_id ON shops (user_id);
+
+CREATE TABLE categories (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(50),
+    description VARCHAR(200),
+    parent_id BIGINT,
+    path VARCHAR(255),
+    depth INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    CONSTRAINT uk_categories_name UNIQUE (name),
+    CONSTRAINT fk_categories_parent FOREIGN KEY (parent_id) REFERENCES categories (id)
+);
+
+-- Subtree lookups are prefix range scans on path
+CREATE INDEX idx_categories_path ON categories (path);
+CREATE INDEX idx_categories_parent_id ON categories (parent_id);
+
+CREATE TABLE products (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(100),
+    description VARCHAR(500),
+    price NUMERIC(19, 2),
+    image_url VARCHAR(255),
+    stock_quantity INTEGER,
+    category_id BIGINT,
+    featured BOOLEAN NOT NULL DEFAULT FALSE,
+    shop_id BIGINT NOT NULL,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    CONSTRAINT fk_products_category FOREIGN KEY (category_id) REFERENCES categories (id),
+    CONSTRAINT fk_products_shop FOREIGN KEY (shop_id) REFERENCES shops (id)
+);
+
+CREATE INDEX idx_products_shop_id ON products (shop_id);
+CREATE INDEX idx_products_category_id ON products (category_id);
+-- Featured products are a small slice of the table; (featured, id) keeps the listing index-only
+CREATE INDEX idx_products_featured ON products (featured, id);
+
+CREATE TABLE product_images (
+    product_id BIGINT NOT NULL,
+    image_url VARCHAR(255),
+    CONSTRAINT fk_product_images_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+CREATE INDEX idx_product_images_product_id ON product_images (product_id);
+
+-- Order, payment and order item ids carry their shard (ShardedIdGenerator); these are shard 0's sequences
+CREATE SEQUENCE order_ids START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE payment_ids START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE order_item_ids START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE orders (
+    id BIGINT NOT NULL PRIMARY KEY,
+    order_number VARCHAR(255),
+    user_id BIGINT NOT NULL,
+    status VARCHAR(255),
+    total_amount NUMERIC(19, 2),
+    shipping_address VARCHAR(255),
+    billing_address VARCHAR(255),
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    CONSTRAINT uk_orders_order_number UNIQUE (order_number),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE INDEX idx_orders_user_id ON orders (user_id);
+-- Admin listings: newest first, optionally filtered by status. Descending, because H2 can't
+-- walk an ascending index backwards and would sort the whole table for ORDER BY created_at DESC.
+CREATE INDEX idx_orders_status_created_at ON orders (status, created_at DESC);
+CREATE INDEX idx_orders_created_at ON orders (created_at DESC);
+
+CREATE TABLE order_items (
+    id BIGINT NOT NULL PRIMARY KEY,
+    order_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    product_name VARCHAR(255),
+    quantity INTEGER,
+    price NUMERIC(19, 2),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+CREATE INDEX idx_order_items_order_id ON order_items (order_id);
+CREATE INDEX idx_order_items_product_id ON order_items (product_id);
+
+CREATE TABLE payments (
+    id BIGINT NOT NULL PRIMARY KEY,
+    order_id BIGINT NOT NULL,
+    amount NUMERIC(19, 2),
+    payment_method VARCHAR(255),
+    status VARCHAR(255),
+    transaction_id VARCHAR(255),
+    payment_date TIMESTAMP,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    CONSTRAINT uk_payments_order_id UNIQUE (order_id),
+    CONSTRAINT uk_payments_transaction_id UNIQUE (transaction_id),
+    CONSTRAINT fk_payments_order FOREIGN KEY (order_id) REFERENCES orders (id)
+);
+
+CREATE TABLE image_blobs (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    hash VARCHAR(64) NOT NULL,
+    path VARCHAR(255) NOT NULL,
+    size BIGINT NOT NULL,
+    ref_count INTEGER NOT NULL,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    CONSTRAINT uk_image_blobs_hash UNIQUE (hash)
+);
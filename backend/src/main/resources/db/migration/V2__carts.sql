@@ -0,0 +1,25 @@
+-- Server-side carts (CartService). Lines are keyed by (cart_id, product_id) with no surrogate
+-- id and no secondary index, so adding, changing or removing a line is one primary-key write.
+-- product_id has no foreign key: deleting a product must not wait on carts, and checkout
+-- rejects lines whose product is gone.
+
+CREATE TABLE carts (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    total_amount NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    item_count INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP,
+    CONSTRAINT uk_carts_user_id UNIQUE (user_id),
+    CONSTRAINT fk_carts_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE cart_items (
+    cart_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INTEGER NOT NULL,
+    unit_price NUMERIC(19, 2) NOT NULL,
+    product_name VARCHAR(100),
+    image_url VARCHAR(255),
+    CONSTRAINT pk_cart_items PRIMARY KEY (cart_id, product_id),
+    CONSTRAINT fk_cart_items_cart FOREIGN KEY (cart_id) REFERENCES carts (id)
+);
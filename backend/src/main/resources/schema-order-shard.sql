@@ -0,0 +1,47 @@
+-- Order tables for the extra order shards (see ShardingConfig). Shard 0 is the main database,
+-- migrated by Flyway from db/migration; keep these tables and indexes in step with it. user_id
+-- and product_id refer to rows in the main database, so there are no foreign keys to users or
+-- products here.
+
+CREATE SEQUENCE IF NOT EXISTS order_ids START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE IF NOT EXISTS payment_ids START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE IF NOT EXISTS order_item_ids START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS orders (
+    id BIGINT NOT NULL PRIMARY KEY,
+    order_number VARCHAR(255) UNIQUE,
+    user_id BIGINT NOT NULL,
+    status VARCHAR(255),
+    total_amount NUMERIC(19, 2),
+    shipping_address VARCHAR(255),
+    billing_address VARCHAR(255),
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_orders_user_id ON orders (user_id);
+CREATE INDEX IF NOT EXISTS idx_orders_status_created_at ON orders (status, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_created_at ON orders (created_at DESC);
+
+CREATE TABLE IF NOT EXISTS order_items (
+    id BIGINT NOT NULL PRIMARY KEY,
+    order_id BIGINT NOT NULL REFERENCES orders (id),
+    product_id BIGINT NOT NULL,
+    product_name VARCHAR(255),
+    quantity INTEGER,
+    price NUMERIC(19, 2)
+);
+
+CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items (order_id);
+
+CREATE TABLE IF NOT EXISTS payments (
+    id BIGINT NOT NULL PRIMARY KEY,
+    order_id BIGINT NOT NULL UNIQUE REFERENCES orders (id),
+    amount NUMERIC(19, 2),
+    payment_method VARCHAR(255),
+    status VARCHAR(255),
+    transaction_id VARCHAR(255) UNIQUE,
+    payment_date TIMESTAMP,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP
+);
@@ -0,0 +1,105 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.config.JacksonConfig;
+import com.ecommerce.dto.OrderDto;
+import com.ecommerce.dto.OrderItemDto;
+import com.ecommerce.dto.PaymentDto;
+import com.ecommerce.dto.ProductDto;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.Payment;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO lists shaped like real responses, and ObjectMappers configured like the application's.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * A mapper built the way Spring Boot builds the application's, with JacksonConfig's
+     * additions; {@code factory} switches it to Smile or CBOR as WebConfig does.
+     */
+    static ObjectMapper mapper(boolean blackbird, JsonFactory factory) {
+        JacksonConfig config = new JacksonConfig();
+        // Spring Boot writes dates as ISO strings
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        config.fieldSelectionFilter().customize(builder);
+        if (blackbird) {
+            builder.modulesToInstall(config.blackbirdModule());
+        }
+        if (factory != null) {
+            builder.factory(factory);
+        }
+        return builder.build();
+    }
+
+    /**
+     * The /products listing for a catalog of {@code count} products in 50 shops and categories.
+     */
+    static List<ProductDto> products(int count) {
+        List<ProductDto> products = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            ProductDto product = new ProductDto();
+            product.setId((long) i);
+            product.setName("Product " + i);
+            product.setDescription("Description of product " + i + ", with enough text to look like a real one");
+            product.setPrice(BigDecimal.valueOf(999 + i % 10_000, 2));
+            product.setImageUrl("/images/objects/" + Integer.toHexString(i % 256) + "/product-" + i + ".jpg");
+            product.setAdditionalImages(List.of("/images/product-" + i + "-2.jpg", "/images/product-" + i + "-3.jpg"));
+            product.setStockQuantity(i % 500);
+            product.setCategoryId((long) (i % 50 + 1));
+            product.setCategoryName("Category " + (i % 50 + 1));
+            product.setFeatured(i % 100 == 0);
+            product.setShopId((long) (i % 50 + 1));
+            product.setShopName("Shop " + (i % 50 + 1));
+            products.add(product);
+        }
+        return products;
+    }
+
+    /**
+     * The /orders listing for {@code count} orders of three items each, with their payments.
+     */
+    static List<OrderDto> orders(int count) {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<OrderDto> orders = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            List<OrderItemDto> items = new ArrayList<>();
+            BigDecimal total = BigDecimal.ZERO;
+            for (int line = 1; line <= 3; line++) {
+                BigDecimal price = BigDecimal.valueOf(999 + (i * line) % 10_000, 2);
+                BigDecimal subtotal = price.multiply(BigDecimal.valueOf(line));
+                items.add(new OrderItemDto(i * 3L + line, (long) (i * line % 10_000 + 1), "Product " + (i * line % 10_000 + 1),
+                        line, price, subtotal));
+                total = total.add(subtotal);
+            }
+            LocalDateTime createdAt = start.plusMinutes(i);
+            OrderDto order = new OrderDto();
+            order.setId((long) i);
+            order.setOrderNumber("ORD-" + (100_000 + i));
+            order.setUserId((long) (i % 100 + 1));
+            order.setItems(items);
+            order.setStatus(Order.OrderStatus.values()[i % Order.OrderStatus.values().length]);
+            order.setTotalAmount(total);
+            order.setShippingAddress(i + " Main Street, Springfield");
+            order.setBillingAddress(i + " Main Street, Springfield");
+            order.setPayment(new PaymentDto((long) i, (long) i, order.getOrderNumber(), total,
+                    Payment.PaymentMethod.values()[0], Payment.PaymentStatus.values()[0], "TX-" + i, createdAt));
+            order.setCreatedAt(createdAt);
+            order.setUpdatedAt(createdAt);
+            orders.add(order);
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,60 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.dto.ProductDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization cost of the /products listing, with and without the Blackbird module
+ * (app.json.blackbird.enabled), isolated from HTTP and the database.
+ *
+ * Run with scripts/jmh-benchmark.sh JsonSerializationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(2)
+public class JsonSerializationBenchmark {
+
+    @Param({"false", "true"})
+    public boolean blackbird;
+
+    @Param("10000")
+    public int products;
+
+    private ObjectMapper mapper;
+    private List<ProductDto> listing;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = BenchmarkData.mapper(blackbird, null);
+        listing = BenchmarkData.products(products);
+        // Blackbird must not change the output, only how it is produced
+        byte[] reflective = BenchmarkData.mapper(false, null).writeValueAsBytes(listing);
+        if (!Arrays.equals(reflective, mapper.writeValueAsBytes(listing))) {
+            throw new IllegalStateException("Blackbird changed the serialized listing");
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeListing() throws IOException {
+        return mapper.writeValueAsBytes(listing);
+    }
+}
@@ -0,0 +1,100 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.dto.OrderDto;
+import com.ecommerce.dto.ProductDto;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode and decode time of the /products and /orders listings as JSON, Smile and CBOR,
+ * with mappers configured like the application's message converters. Each trial also
+ * prints the payload size, raw and gzipped.
+ *
+ * Run with scripts/jmh-benchmark.sh PayloadFormatBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(2)
+public class PayloadFormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    // 10,000 products, or 1,000 orders of three items each
+    @Param({"products", "orders"})
+    public String listing;
+
+    private ObjectMapper mapper;
+    private JavaType type;
+    private List<?> values;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = BenchmarkData.mapper(true, factory(format));
+        if (listing.equals("products")) {
+            values = BenchmarkData.products(10_000);
+            type = mapper.getTypeFactory().constructCollectionType(List.class, ProductDto.class);
+        } else {
+            values = BenchmarkData.orders(1_000);
+            type = mapper.getTypeFactory().constructCollectionType(List.class, OrderDto.class);
+        }
+        encoded = mapper.writeValueAsBytes(values);
+        if (!mapper.readValue(encoded, type).equals(values)) {
+            throw new IllegalStateException(format + " did not round-trip the " + listing + " listing");
+        }
+        System.out.printf("%n%s %s: %d bytes, %d gzipped%n", listing, format, encoded.length, gzipped(encoded));
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(values);
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return mapper.readValue(encoded, type);
+    }
+
+    private static JsonFactory factory(String format) {
+        switch (format) {
+            case "smile":
+                return new SmileFactory();
+            case "cbor":
+                return new CBORFactory();
+            default:
+                return null;
+        }
+    }
+
+    private static int gzipped(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.size();
+    }
+}
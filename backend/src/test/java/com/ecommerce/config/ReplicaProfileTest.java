@@ -0,0 +1,40 @@
+package com.ecommerce.config;
+
+import com.ecommerce.repository.ReactiveCatalogRepository;
+import com.ecommerce.service.CategoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Boots the application under the replica profile exactly as configured, so a malformed
+ * JDBC or R2DBC URL there fails the build instead of the first local run. Like a local run,
+ * it opens (and migrates) the file database under ./data.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("replica")
+class ReplicaProfileTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ReactiveCatalogRepository reactiveCatalogRepository;
+
+    @Test
+    void readsGoThroughBothPoolsAndR2dbc() throws Exception {
+        assertThat(dataSource.unwrap(ReadWriteRoutingDataSource.class)).isNotNull();
+
+        // Read-only transaction, routed to the replica pool
+        assertThat(categoryService.getAllCategories()).isNotNull();
+        assertThat(reactiveCatalogRepository.findCategories().collectList().block()).isNotNull();
+    }
+}
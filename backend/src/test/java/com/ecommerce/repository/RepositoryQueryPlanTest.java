@@ -0,0 +1,300 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.Order;
+import com.ecommerce.model.Product;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.Repository;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.jdbc.Sql;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs every finder declared on a *Repository interface, every *RepositoryCustom fragment
+ * method and every ReactiveCatalogRepository query against the migrated H2 schema, filled
+ * with enough rows for realistic plans, and checks with EXPLAIN that none of their
+ * statements reads a whole table.
+ */
+@Sql("/test-data.sql")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.ecommerce.repository.RepositoryQueryPlanTest$CapturedSql")
+class RepositoryQueryPlanTest {
+
+    // Queries whose plans scan a whole table by design; each must still scan, so the list stays current
+    private static final Map<String, String> FULL_SCAN_EXPECTED = Map.of(
+            // The unfiltered product listing
+            "ProductRepository.findAllWithShop", "returns every product",
+            "ProductRepository.findListing(all)", "returns every product",
+            // A leading-wildcard LIKE can't use a B-tree index; search needs a full-text index instead
+            "ProductRepository.searchProducts", "leading-wildcard LIKE",
+            "ProductRepository.findListing(search)", "leading-wildcard LIKE",
+            // Counts the products of every category for the reactive category list
+            "ReactiveCatalogRepository.findCategories", "counts every product");
+
+    private static final Pattern ESCAPED_PLACEHOLDER = Pattern.compile("(escape )?\\?");
+
+    private static final Set<String> PRODUCT_LISTING = Set.of("name", "description", "price", "imageUrl",
+            "stockQuantity", "featured", "categoryId", "shopId", "shopName");
+    private static final Set<String> SHOP_DIRECTORY = Set.of("name", "description", "address", "logoUrl",
+            "ownerId", "ownerName", "productCount");
+    private static final Set<String> ORDER_LISTING = Set.of("orderNumber", "userId", "status", "totalAmount",
+            "shippingAddress", "billingAddress", "createdAt", "updatedAt");
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ShopRepository shopRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void queriesDoNotScanWholeTables() throws Exception {
+        Map<String, List<String>> statements = new LinkedHashMap<>();
+        statements.putAll(finderStatements());
+        statements.putAll(fragmentStatements());
+        statements.putAll(reactiveStatements());
+
+        List<String> scans = new ArrayList<>();
+        Set<String> expectedScans = new HashSet<>();
+        for (Map.Entry<String, List<String>> query : statements.entrySet()) {
+            assertThat(query.getValue()).as("SQL issued by %s", query.getKey()).isNotEmpty();
+            for (String sql : query.getValue()) {
+                String plan = explain(sql);
+                if (!plan.contains(".tableScan")) {
+                    continue;
+                }
+                if (FULL_SCAN_EXPECTED.containsKey(query.getKey())) {
+                    expectedScans.add(query.getKey());
+                } else {
+                    scans.add(query.getKey() + ":\n" + plan);
+                }
+            }
+        }
+
+        assertThat(scans).as("queries whose plans scan a whole table").isEmpty();
+        assertThat(expectedScans).as("FULL_SCAN_EXPECTED entries that still scan")
+                .containsExactlyInAnyOrderElementsOf(FULL_SCAN_EXPECTED.keySet());
+    }
+
+    private Map<String, List<String>> finderStatements() throws Exception {
+        Map<String, List<String>> statements = new LinkedHashMap<>();
+        for (Object bean : context.getBeansOfType(Repository.class).values()) {
+            for (Class<?> type : bean.getClass().getInterfaces()) {
+                if (!type.getName().startsWith("com.ecommerce.repository.") || !type.getSimpleName().endsWith("Repository")) {
+                    continue;
+                }
+                for (Method finder : type.getDeclaredMethods()) {
+                    if (finder.isAnnotationPresent(Modifying.class) || finder.isDefault()) {
+                        continue;
+                    }
+                    CapturedSql.STATEMENTS.clear();
+                    finder.invoke(bean, arguments(finder));
+                    statements.put(type.getSimpleName() + "." + finder.getName(), new ArrayList<>(CapturedSql.STATEMENTS));
+                }
+            }
+        }
+        return statements;
+    }
+
+    /**
+     * The fragments take projections and specifications rather than plain values, so each
+     * runs with the ones its service passes.
+     */
+    private Map<String, List<String>> fragmentStatements() {
+        Map<String, Runnable> calls = new LinkedHashMap<>();
+        calls.put("ProductRepository.findListing(all)", () -> productListing(null));
+        calls.put("ProductRepository.findListing(category)", () -> productListing(
+                (root, query, cb) -> cb.equal(root.get("category").get("id"), 1L)));
+        calls.put("ProductRepository.findListing(subtree)", () -> productListing(
+                (root, query, cb) -> cb.like(root.join("category").<String>get("path"), "/1/%")));
+        calls.put("ProductRepository.findListing(featured)", () -> productListing(
+                (root, query, cb) -> cb.isTrue(root.<Boolean>get("featured"))));
+        calls.put("ProductRepository.findListing(shop)", () -> productListing(
+                (root, query, cb) -> cb.equal(root.get("shop").get("id"), 1L)));
+        calls.put("ProductRepository.findListing(search)", () -> productListing(
+                (root, query, cb) -> cb.like(cb.lower(root.<String>get("name")), "%a%")));
+        calls.put("ProductRepository.findAllCached", () -> {
+            // Only the ids missing from the second-level cache are queried
+            entityManagerFactory.getCache().evictAll();
+            productRepository.findAllCached(List.of(1L, 2L));
+        });
+        calls.put("ShopRepository.findDirectoryListing(page)",
+                () -> shopRepository.findDirectoryListing(SHOP_DIRECTORY, 1L, null, 24));
+        calls.put("ShopRepository.findDirectoryListing(search)",
+                () -> shopRepository.findDirectoryListing(SHOP_DIRECTORY, 0L, "a", 24));
+        calls.put("OrderRepository.findListing(user)", () -> orderRepository.findListing(ORDER_LISTING,
+                (root, query, cb) -> cb.equal(root.get("user").get("id"), 1L), Sort.unsorted(), 0));
+        calls.put("OrderRepository.findListing(recent)", () -> orderRepository.findListing(ORDER_LISTING,
+                null, Sort.by(Sort.Direction.DESC, "createdAt"), 20));
+        calls.put("OrderRepository.findListing(recent by status)", () -> orderRepository.findListing(ORDER_LISTING,
+                (root, query, cb) -> cb.equal(root.get("status"), Order.OrderStatus.PENDING),
+                Sort.by(Sort.Direction.DESC, "createdAt"), 20));
+
+        Map<String, List<String>> statements = new LinkedHashMap<>();
+        for (Map.Entry<String, Runnable> call : calls.entrySet()) {
+            CapturedSql.STATEMENTS.clear();
+            call.getValue().run();
+            statements.put(call.getKey(), new ArrayList<>(CapturedSql.STATEMENTS));
+        }
+        return statements;
+    }
+
+    private void productListing(Specification<Product> where) {
+        productRepository.findListing(PRODUCT_LISTING, where);
+    }
+
+    /**
+     * ReactiveCatalogRepository runs over R2DBC, outside this JPA context; its statements are
+     * captured from a stub DatabaseClient and explained over JDBC like the others.
+     */
+    private Map<String, List<String>> reactiveStatements() throws Exception {
+        Map<String, List<String>> statements = new LinkedHashMap<>();
+        for (Method query : ReactiveCatalogRepository.class.getDeclaredMethods()) {
+            if (!Modifier.isPublic(query.getModifiers()) || Modifier.isStatic(query.getModifiers())) {
+                continue;
+            }
+            DatabaseClient client = mock(DatabaseClient.class, RETURNS_DEEP_STUBS);
+            query.invoke(new ReactiveCatalogRepository(client), arguments(query));
+            ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+            verify(client).sql(sql.capture());
+            // Named R2DBC parameters become JDBC placeholders
+            statements.put("ReactiveCatalogRepository." + query.getName(), List.of(sql.getValue().replaceAll(":\\w+", "?")));
+        }
+        return statements;
+    }
+
+    private String explain(String sql) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            // Real values rather than NULL, which H2 can't use to bound a range (e.g. LIKE ? || '%')
+            ParameterMetaData parameters = statement.getParameterMetaData();
+            Matcher placeholder = ESCAPED_PLACEHOLDER.matcher(sql);
+            for (int i = 1; i <= parameters.getParameterCount() && placeholder.find(); i++) {
+                // A LIKE ... ESCAPE ? takes a single character
+                statement.setObject(i, placeholder.group(1) != null ? "\\" : sampleFor(parameters.getParameterType(i)));
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    plan.append(rows.getString(1));
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    private static Object sampleFor(int sqlType) {
+        switch (sqlType) {
+            case Types.VARCHAR:
+            case Types.CHAR:
+                return "/1/";
+            case Types.BOOLEAN:
+                return true;
+            case Types.TIMESTAMP:
+                return LocalDateTime.now();
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return BigDecimal.ONE;
+            default:
+                return 1L;
+        }
+    }
+
+    private static Object[] arguments(Method finder) {
+        Parameter[] parameters = finder.getParameters();
+        Object[] arguments = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            arguments[i] = sample(parameters[i].getType());
+        }
+        return arguments;
+    }
+
+    private static Object sample(Class<?> type) {
+        if (type == Long.class || type == long.class) {
+            return 1L;
+        }
+        if (type == Integer.class || type == int.class) {
+            return 1;
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return true;
+        }
+        if (type == String.class) {
+            return "a";
+        }
+        if (type == BigDecimal.class) {
+            return BigDecimal.ONE;
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (type.isEnum()) {
+            return type.getEnumConstants()[0];
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return List.of(1L, 2L);
+        }
+        if (type == Pageable.class) {
+            return PageRequest.of(0, 20);
+        }
+        throw new IllegalArgumentException("No sample value for finder parameter of type " + type.getName());
+    }
+
+    public static class CapturedSql implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.ecommerce.security;
+
+import com.ecommerce.config.RateLimitProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The filter must limit every spelling of a path that Spring MVC routes to the same handler.
+ */
+class RateLimitFilterTest {
+
+    @Test
+    void limitsLoginUnderEveryPathTheHandlerAccepts() throws Exception {
+        RateLimitFilter filter = loginLimitedTo(4);
+
+        assertThat(post(filter, "/auth/login")).isEqualTo(200);
+        assertThat(post(filter, "/auth/login/")).isEqualTo(200);
+        assertThat(post(filter, "/auth/%6Cogin")).isEqualTo(200);
+        assertThat(post(filter, "/auth//login")).isEqualTo(200);
+        assertThat(post(filter, "/auth/login/")).isEqualTo(429);
+        assertThat(post(filter, "/auth/login")).isEqualTo(429);
+    }
+
+    private static RateLimitFilter loginLimitedTo(int capacity) {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setPath("/auth/login");
+        route.setMethod("POST");
+        route.setCapacity(capacity);
+        route.setPeriod(Duration.ofMinutes(1));
+        route.setKey(RateLimitProperties.KeyType.IP);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRoutes(List.of(route));
+        return new RateLimitFilter(properties, new ObjectMapper().findAndRegisterModules());
+    }
+
+    private static int post(RateLimitFilter filter, String uri) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
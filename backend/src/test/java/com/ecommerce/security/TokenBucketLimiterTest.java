@@ -0,0 +1,124 @@
+package com.ecommerce.security;
+
+import com.ecommerce.config.RateLimitProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the limiter on a hand-advanced clock, so refill and idle eviction are checked
+ * without sleeping.
+ */
+class TokenBucketLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000 * SECOND);
+
+    @Test
+    void allowsABurstOfCapacityThenReportsTheWait() {
+        TokenBucketLimiter limiter = limiter(route("/auth/login", "POST", 3, Duration.ofSeconds(3)), 100);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("ip:1")).isZero();
+        }
+        assertThat(limiter.tryAcquire("ip:1")).isEqualTo(SECOND);
+        // Other clients have their own bucket
+        assertThat(limiter.tryAcquire("ip:2")).isZero();
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        TokenBucketLimiter limiter = limiter(route("/auth/login", "POST", 3, Duration.ofSeconds(3)), 100);
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("ip:1");
+        }
+
+        clock.addAndGet(SECOND / 2);
+        assertThat(limiter.tryAcquire("ip:1")).isEqualTo(SECOND / 2);
+
+        clock.addAndGet(SECOND / 2);
+        assertThat(limiter.tryAcquire("ip:1")).isZero();
+        assertThat(limiter.tryAcquire("ip:1")).isPositive();
+
+        // A bucket left idle for the whole period is full again
+        clock.addAndGet(10 * SECOND);
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("ip:1")).isZero();
+        }
+    }
+
+    @Test
+    void matchesExactRoutesByMethodAndPath() {
+        TokenBucketLimiter limiter = limiter(route("/auth/login", "POST", 10, Duration.ofMinutes(1)), 100);
+
+        assertThat(limiter.matches("POST", "/auth/login")).isTrue();
+        assertThat(limiter.matches("post", "/auth/login")).isTrue();
+        assertThat(limiter.matches("GET", "/auth/login")).isFalse();
+        assertThat(limiter.matches("POST", "/auth/login/extra")).isFalse();
+        assertThat(limiter.matches("POST", "/auth/logins")).isFalse();
+        assertThat(limiter.matches("POST", "/auth")).isFalse();
+    }
+
+    @Test
+    void matchesPrefixRoutesOnWholeSegments() {
+        TokenBucketLimiter limiter = limiter(route("/orders/**", null, 10, Duration.ofMinutes(1)), 100);
+
+        assertThat(limiter.matches("GET", "/orders")).isTrue();
+        assertThat(limiter.matches("POST", "/orders/1/cancel")).isTrue();
+        assertThat(limiter.matches("GET", "/ordersx")).isFalse();
+        assertThat(limiter.matches("GET", "/products")).isFalse();
+    }
+
+    @Test
+    void ignoresATrailingSlashLikeTheHandlerMapping() {
+        TokenBucketLimiter login = limiter(route("/auth/login", "POST", 10, Duration.ofMinutes(1)), 100);
+        TokenBucketLimiter orders = limiter(route("/orders/**", null, 10, Duration.ofMinutes(1)), 100);
+
+        assertThat(login.matches("POST", "/auth/login/")).isTrue();
+        assertThat(orders.matches("GET", "/orders/")).isTrue();
+        assertThat(orders.matches("GET", "/orders/1/")).isTrue();
+    }
+
+    @Test
+    void newClientsShareAnOverflowBucketWhileEveryBucketIsActive() {
+        TokenBucketLimiter limiter = limiter(route("/auth/login", "POST", 1, Duration.ofSeconds(1)), 2);
+        limiter.tryAcquire("ip:1");
+        limiter.tryAcquire("ip:2");
+
+        assertThat(limiter.tryAcquire("ip:3")).isZero();
+        assertThat(limiter.tryAcquire("ip:4")).isPositive();
+        assertThat(limiter.size()).isEqualTo(3);
+    }
+
+    @Test
+    void evictsIdleBucketsOnceMaxBucketsIsReached() {
+        TokenBucketLimiter limiter = limiter(route("/auth/login", "POST", 1, Duration.ofSeconds(1)), 2);
+        limiter.tryAcquire("ip:1");
+        limiter.tryAcquire("ip:2");
+
+        clock.addAndGet(2 * SECOND);
+        assertThat(limiter.tryAcquire("ip:3")).isZero();
+        assertThat(limiter.size()).isEqualTo(1);
+        // An evicted client starts over with a full bucket
+        assertThat(limiter.tryAcquire("ip:1")).isZero();
+    }
+
+    private TokenBucketLimiter limiter(RateLimitProperties.Route route, int maxBuckets) {
+        return new TokenBucketLimiter(route, maxBuckets, clock::get);
+    }
+
+    private static RateLimitProperties.Route route(String path, String method, int capacity, Duration period) {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setPath(path);
+        route.setMethod(method);
+        route.setCapacity(capacity);
+        route.setPeriod(period);
+        route.setKey(RateLimitProperties.KeyType.IP);
+        return route;
+    }
+}
@@ -0,0 +1,128 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.CartDto;
+import com.ecommerce.exception.InvalidRequestException;
+import com.ecommerce.model.Order;
+import com.ecommerce.repository.CartItemRepository;
+import com.ecommerce.repository.CartRepository;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.reset;
+
+/**
+ * Checkout removes the cart's lines together with the stock reservation, so the only write
+ * after the order is saved is in memory. The order repository is mocked to make the order
+ * write succeed or fail on demand; carts and stock are real.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:cartcheckoutdb",
+        "spring.r2dbc.url=r2dbc:h2:mem:///cartcheckoutdb"})
+class CartCheckoutTest {
+
+    // Rows from test-data.sql: users 1-1000, products 1-20000 with 100 in stock each
+    private static final long DELETED_PRODUCT_ID = 20001L;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @MockBean
+    private OrderRepository orderRepository;
+
+    @BeforeAll
+    void seed() {
+        new ResourceDatabasePopulator(new ClassPathResource("test-data.sql")).execute(dataSource);
+    }
+
+    @Test
+    void orderedLinesAreRemovedFromTheDatabase() {
+        reset(orderRepository);
+        given(orderRepository.save(any(Order.class))).willAnswer(invocation -> invocation.getArgument(0));
+        cartService.addItem(901L, 5L, 2);
+
+        orderService.createOrderFromCart(901L, "Shipping", "Billing");
+
+        assertThat(cartService.getCart(901L).getItems()).isEmpty();
+        assertThat(storedLines(901L)).isZero();
+        assertThat(stockOf(5L)).isEqualTo(98);
+    }
+
+    @Test
+    void failedOrderWriteRestoresLinesAndStock() {
+        reset(orderRepository);
+        given(orderRepository.save(any(Order.class))).willThrow(new IllegalStateException("shard down"));
+        cartService.addItem(902L, 6L, 3);
+
+        assertThatThrownBy(() -> orderService.createOrderFromCart(902L, "Shipping", "Billing"))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(cartService.getCart(902L).getItemCount()).isEqualTo(3);
+        assertThat(storedLines(902L)).isEqualTo(1);
+        assertThat(stockOf(6L)).isEqualTo(100);
+    }
+
+    @Test
+    void deletedProductIsReportedForItsLine() {
+        new JdbcTemplate(dataSource).update("INSERT INTO products (id, name, price, stock_quantity, category_id, " +
+                "featured, shop_id) VALUES (?, 'Discontinued', 10, 100, 1, FALSE, 1)", DELETED_PRODUCT_ID);
+        cartService.addItem(903L, DELETED_PRODUCT_ID, 1);
+        cartService.addItem(903L, 7L, 1);
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> productRepository.deleteById(DELETED_PRODUCT_ID));
+
+        assertThatThrownBy(() -> orderService.createOrderFromCart(903L, "Shipping", "Billing"))
+                .isInstanceOfSatisfying(InvalidRequestException.class, e -> assertThat(e.getErrors())
+                        .containsExactly("Product " + DELETED_PRODUCT_ID + " is no longer available"));
+
+        CartDto cart = cartService.getCart(903L);
+        assertThat(cart.getItems()).hasSize(2);
+        assertThat(storedLines(903L)).isEqualTo(2);
+        assertThat(stockOf(7L)).isEqualTo(100);
+    }
+
+    private int storedLines(Long userId) {
+        return cartRepository.findByUserId(userId)
+                .map(cart -> cartItemRepository.findByCartId(cart.getId()).size())
+                .orElse(0);
+    }
+
+    private int stockOf(Long productId) {
+        return productRepository.findById(productId).orElseThrow().getStockQuantity();
+    }
+}
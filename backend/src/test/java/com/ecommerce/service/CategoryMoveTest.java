@@ -0,0 +1,101 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.CategoryDto;
+import com.ecommerce.exception.InvalidRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Moves a two-level subtree between parents and back to the top level, checking the moved
+ * category and its descendant both get their path and depth rewritten.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:categorymovedb",
+        "spring.r2dbc.url=r2dbc:h2:mem:///categorymovedb"})
+class CategoryMoveTest {
+
+    // Category names are unique, so every test builds its own tree
+    private static final AtomicInteger TREES = new AtomicInteger();
+
+    @Autowired
+    private CategoryService categoryService;
+
+    private CategoryDto rootA;
+    private CategoryDto rootB;
+    private CategoryDto child;
+    private CategoryDto grandchild;
+
+    @BeforeEach
+    void createTree() {
+        String prefix = "move-" + TREES.incrementAndGet() + "-";
+        rootA = create(prefix + "a", null);
+        rootB = create(prefix + "b", null);
+        child = create(prefix + "child", rootA.getId());
+        grandchild = create(prefix + "grandchild", child.getId());
+    }
+
+    @Test
+    void movesSubtreeUnderAnotherParent() {
+        CategoryDto moved = categoryService.moveCategory(child.getId(), rootB.getId());
+
+        assertThat(moved.getParentId()).isEqualTo(rootB.getId());
+        assertThat(moved.getPath()).isEqualTo(rootB.getPath() + child.getId() + "/");
+        assertThat(moved.getDepth()).isEqualTo(1);
+
+        CategoryDto movedGrandchild = categoryService.getCategoryById(grandchild.getId());
+        assertThat(movedGrandchild.getPath()).isEqualTo(moved.getPath() + grandchild.getId() + "/");
+        assertThat(movedGrandchild.getDepth()).isEqualTo(2);
+    }
+
+    @Test
+    void movesSubtreeToTopLevel() {
+        CategoryDto moved = categoryService.moveCategory(child.getId(), null);
+
+        assertThat(moved.getParentId()).isNull();
+        assertThat(moved.getPath()).isEqualTo("/" + child.getId() + "/");
+        assertThat(moved.getDepth()).isZero();
+
+        CategoryDto movedGrandchild = categoryService.getCategoryById(grandchild.getId());
+        assertThat(movedGrandchild.getPath()).isEqualTo("/" + child.getId() + "/" + grandchild.getId() + "/");
+        assertThat(movedGrandchild.getDepth()).isEqualTo(1);
+
+        // And back under a parent
+        CategoryDto movedBack = categoryService.moveCategory(child.getId(), rootA.getId());
+        assertThat(movedBack.getPath()).isEqualTo(rootA.getPath() + child.getId() + "/");
+        assertThat(categoryService.getCategoryById(grandchild.getId()).getDepth()).isEqualTo(2);
+    }
+
+    @Test
+    void updateWithoutParentKeepsCategoryInPlace() {
+        CategoryDto changes = new CategoryDto();
+        changes.setName(child.getName());
+        changes.setDescription("renamed");
+
+        CategoryDto updated = categoryService.updateCategory(child.getId(), changes);
+
+        assertThat(updated.getParentId()).isEqualTo(rootA.getId());
+        assertThat(updated.getPath()).isEqualTo(child.getPath());
+    }
+
+    @Test
+    void rejectsMoveUnderOwnSubtree() {
+        assertThatThrownBy(() -> categoryService.moveCategory(child.getId(), grandchild.getId()))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> categoryService.moveCategory(rootA.getId(), rootA.getId()))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    private CategoryDto create(String name, Long parentId) {
+        CategoryDto category = new CategoryDto();
+        category.setName(name);
+        category.setParentId(parentId);
+        return categoryService.createCategory(category);
+    }
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class ImageStorageServiceTest {
+
+    @TempDir
+    Path uploads;
+
+    @Test
+    void servesOnlyImagesOutsideTheInternalDirectories() {
+        ImageStorageService storage = new ImageStorageService(null, uploads.toString(), "http://localhost:8081");
+
+        assertThat(storage.resolvePublic("/images/objects/ab/ab12.png")).isEqualTo(uploads.resolve("objects/ab/ab12.png"));
+        assertThat(storage.resolvePublic("/images/products/photo.jpg")).isEqualTo(uploads.resolve("products/photo.jpg"));
+
+        assertThatIllegalArgumentException().isThrownBy(() -> storage.resolvePublic("/images/.trash/objects/ab/ab12.png"));
+        assertThatIllegalArgumentException().isThrownBy(() -> storage.resolvePublic("/images/tmp/upload-1.tmp"));
+        assertThatIllegalArgumentException().isThrownBy(() -> storage.resolvePublic("/images/variants/objects/ab/ab12_w480.png"));
+        assertThatIllegalArgumentException().isThrownBy(() -> storage.resolvePublic("/images/objects/../tmp/upload-1.tmp"));
+        assertThatIllegalArgumentException().isThrownBy(() -> storage.resolvePublic("/images/../secret.txt"));
+    }
+}
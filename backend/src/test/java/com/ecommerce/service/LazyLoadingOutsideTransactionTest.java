@@ -0,0 +1,138 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.FieldSelection;
+import com.ecommerce.dto.OrderDto;
+import com.ecommerce.dto.PaymentDto;
+import com.ecommerce.dto.ProductDto;
+import com.ecommerce.dto.ShopDto;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * With open-in-view off there is no session around the caller, so every association a DTO
+ * mapper reads must have been fetched inside the service's own transaction. Calls each read
+ * method from outside any transaction, as a controller would, and checks the association-backed
+ * fields came back filled in rather than throwing LazyInitializationException. Each call is
+ * made twice so the second one is answered from the second-level cache.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.jpa.open-in-view=false",
+        "spring.datasource.url=jdbc:h2:mem:lazyloadingdb",
+        "spring.r2dbc.url=r2dbc:h2:mem:///lazyloadingdb"})
+class LazyLoadingOutsideTransactionTest {
+
+    // Rows from test-data.sql: product 1 is in shop 2, shop 1 belongs to user 1,
+    // order 1 belongs to user 2 and payment 1 pays order 1
+    private static final long PRODUCT_ID = 1L;
+    private static final long SHOP_ID = 1L;
+    private static final long ORDER_ID = 1L;
+    private static final long ORDER_USER_ID = 2L;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ShopService shopService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeAll
+    void seed(@Autowired DataSource dataSource) {
+        new ResourceDatabasePopulator(new ClassPathResource("test-data.sql")).execute(dataSource);
+    }
+
+    @Test
+    void productsCarryTheirShop() {
+        for (int call = 0; call < 2; call++) {
+            ProductDto product = productService.getProductById(PRODUCT_ID);
+            assertThat(product.getShopName()).isEqualTo("Shop 2");
+            assertThat(product.getCategoryId()).isEqualTo(2L);
+
+            assertShopsMapped(productService.getAllProducts(FieldSelection.all()));
+            assertShopsMapped(productService.getProductsByIds(List.of(1L, 2L, 3L), FieldSelection.all()));
+            assertShopsMapped(productService.getProductsByCategory(2L, true, FieldSelection.all()));
+            assertShopsMapped(productService.getFeaturedProducts(FieldSelection.all()));
+            assertShopsMapped(productService.searchProducts("Product 1", FieldSelection.all()));
+            assertShopsMapped(productService.getProductsByShop(SHOP_ID, FieldSelection.all()));
+        }
+    }
+
+    @Test
+    void shopsCarryTheirOwner() {
+        for (int call = 0; call < 2; call++) {
+            ShopDto shop = shopService.getShopById(SHOP_ID);
+            assertThat(shop.getOwnerId()).isEqualTo(1L);
+            assertThat(shop.getOwnerName()).isEqualTo("User 1");
+            assertThat(shopService.getShopByOwnerId(1L).getOwnerName()).isEqualTo("User 1");
+
+            List<ShopDto> page = shopService.getShopDirectoryPage(null, 20, null, true, FieldSelection.all());
+            assertThat(page).isNotEmpty().allSatisfy(s -> assertThat(s.getOwnerName()).isNotNull());
+        }
+    }
+
+    @Test
+    void ordersCarryTheirItems() {
+        for (int call = 0; call < 2; call++) {
+            assertOrderMapped(orderService.getOrderById(ORDER_ID, ORDER_USER_ID));
+            assertOrderMapped(orderService.getOrderByOrderNumber("ORD-" + ORDER_ID, ORDER_USER_ID));
+
+            List<OrderDto> orders = orderService.getOrdersByUserId(ORDER_USER_ID, FieldSelection.all());
+            assertThat(orders).isNotEmpty().allSatisfy(this::assertOrderMapped);
+
+            List<OrderDto> recent = orderService.getRecentOrders(null, 10, FieldSelection.all());
+            assertThat(recent).hasSize(10).allSatisfy(this::assertOrderMapped);
+        }
+    }
+
+    @Test
+    void paymentsCarryTheirOrder() {
+        for (int call = 0; call < 2; call++) {
+            assertPaymentMapped(paymentService.getPaymentById(ORDER_ID));
+            assertPaymentMapped(paymentService.getPaymentByOrderId(ORDER_ID, ORDER_USER_ID));
+        }
+    }
+
+    @Test
+    void categoriesAndUsersMapOutsideATransaction() {
+        assertThat(categoryService.getAllCategories()).hasSize(200);
+        assertThat(categoryService.getCategoryById(1L).getName()).isEqualTo("Category 1");
+        assertThat(categoryService.getCategoryTree()).isNotEmpty();
+        assertThat(categoryService.getBreadcrumb(1L)).isNotEmpty();
+        assertThat(userService.getUserByEmail("user1@example.com").getEmail()).isEqualTo("user1@example.com");
+    }
+
+    private void assertShopsMapped(List<ProductDto> products) {
+        assertThat(products).isNotEmpty().allSatisfy(p -> assertThat(p.getShopName()).isNotNull());
+    }
+
+    private void assertOrderMapped(OrderDto order) {
+        assertThat(order.getUserId()).isNotNull();
+        assertThat(order.getItems()).isNotEmpty().allSatisfy(item -> assertThat(item.getProductId()).isNotNull());
+    }
+
+    private void assertPaymentMapped(PaymentDto payment) {
+        assertThat(payment.getOrderId()).isEqualTo(ORDER_ID);
+        assertThat(payment.getOrderNumber()).isEqualTo("ORD-" + ORDER_ID);
+    }
+}
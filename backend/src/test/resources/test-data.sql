@@ -0,0 +1,29 @@
+-- Shared seed for tests that need populated tables. Enough rows that H2's optimizer costs plans
+-- as it would on a populated database (RepositoryQueryPlanTest); on empty tables a scan is always cheapest.
+INSERT INTO users (first_name, last_name, email, password, role)
+SELECT 'User', CAST(X AS VARCHAR), 'user' || X || '@example.com', 'x', 'USER' FROM SYSTEM_RANGE(1, 1000);
+
+INSERT INTO categories (name, path, depth)
+SELECT 'Category ' || X, '/' || X || '/', 0 FROM SYSTEM_RANGE(1, 200);
+
+INSERT INTO shops (name, address, user_id)
+SELECT 'Shop ' || X, 'Address', X FROM SYSTEM_RANGE(1, 500);
+
+INSERT INTO products (name, price, stock_quantity, category_id, featured, shop_id)
+SELECT 'Product ' || X, 10, 100, MOD(X, 200) + 1, MOD(X, 100) = 0, MOD(X, 500) + 1 FROM SYSTEM_RANGE(1, 20000);
+
+INSERT INTO product_images (product_id, image_url)
+SELECT MOD(X, 20000) + 1, '/images/' || X FROM SYSTEM_RANGE(1, 20000);
+
+INSERT INTO orders (id, order_number, user_id, status, total_amount, created_at)
+SELECT X, 'ORD-' || X, MOD(X, 1000) + 1,
+       CASE MOD(X, 5) WHEN 0 THEN 'PENDING' WHEN 1 THEN 'PROCESSING' WHEN 2 THEN 'SHIPPED' WHEN 3 THEN 'DELIVERED' ELSE 'CANCELLED' END, 10, DATEADD('MINUTE', X, TIMESTAMP '2024-01-01 00:00:00')
+FROM SYSTEM_RANGE(1, 20000);
+
+INSERT INTO order_items (id, order_id, product_id, product_name, quantity, price)
+SELECT X, X, MOD(X, 20000) + 1, 'Product', 1, 10 FROM SYSTEM_RANGE(1, 20000);
+
+INSERT INTO payments (id, order_id, amount, payment_method, status, transaction_id)
+SELECT X, X, 10, 'CREDIT_CARD', 'COMPLETED', 'TX-' || X FROM SYSTEM_RANGE(1, 20000);
+
+ANALYZE;
@@ -1,4 +1,5 @@
-import React, { createContext, useState, useEffect } from 'react';
+import React, { createContext, useState, useEffect, useCallback } from 'react';
+import { productApi } from '../services/api';
 
 export const CartContext = createContext();
 
@@ -79,6 +80,35 @@ export const CartProvider = ({ children }) => {
     localStorage.removeItem('cart');
   };
 
+
+  // Re-reads every line's name, price and stock with one batch request. Lines whose product
+  // is gone are dropped and quantities are capped at the stock left. Returns the names of
+  // the lines that changed so the caller can tell the user.
+  const refreshCart = useCallback(async () => {
+    if (cartItems.length === 0) {
+      return [];
+    }
+    const response = await productApi.getProductsBatch(cartItems.map(item => item.id));
+    const current = new Map(response.data.map(product => [product.id, product]));
+
+    const changed = [];
+    const refreshed = [];
+    cartItems.forEach(item => {
+      const product = current.get(item.id);
+      if (!product || product.stockQuantity <= 0) {
+        changed.push(item.name);
+        return;
+      }
+      const quantity = Math.min(item.quantity, product.stockQuantity);
+      if (quantity !== item.quantity || Number(product.price) !== Number(item.price)) {
+        changed.push(product.name);
+      }
+      refreshed.push({ ...item, ...product, quantity });
+    });
+    setCartItems(refreshed);
+    return changed;
+  }, [cartItems]);
+
   const contextValue = {
     cartItems,
     totalItems,
@@ -86,7 +116,8 @@ export const CartProvider = ({ children }) => {
     addToCart,
     removeFromCart,
     updateQuantity,
-    clearCart
+    clearCart,
+    refreshCart
   };
 
   return (
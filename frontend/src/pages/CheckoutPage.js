@@ -438,6 +438,7 @@ const CheckoutPage = () => {
   const [activeStep, setActiveStep] = useState(0);
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState(null);
+  const [cartNotice, setCartNotice] = useState(null);
   const [orderNumber, setOrderNumber] = useState(null);
   const [formData, setFormData] = useState({
     firstName: '',
@@ -459,7 +460,7 @@ const CheckoutPage = () => {
     saveCard: false
   });
 
-  const { cartItems, totalPrice, clearCart } = useContext(CartContext);
+  const { cartItems, totalPrice, clearCart, refreshCart } = useContext(CartContext);
   const { currentUser } = useContext(AuthContext);
   const navigate = useNavigate();
   
@@ -478,6 +479,23 @@ const CheckoutPage = () => {
   }, [cartItems, currentUser, navigate]);
 
 
+  // Prices and stock may have changed since items were added; re-check them all in one request
+  useEffect(() => {
+    if (!currentUser) {
+      return;
+    }
+    refreshCart()
+      .then(changed => {
+        if (changed.length > 0) {
+          setCartNotice(`Updated to current price and stock: ${changed.join(', ')}`);
+        }
+      })
+      .catch(err => console.error('Error refreshing cart:', err));
+    // Once per visit, not on every cart change
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, [currentUser]);
+
+
   useEffect(() => {
     if (currentUser) {
       setFormData(prev => ({
@@ -661,6 +679,12 @@ const CheckoutPage = () => {
           ))}
         </Stepper>
         
+        {cartNotice && (
+          <Alert severity="warning" sx={{ mb: 3 }} onClose={() => setCartNotice(null)}>
+            {cartNotice}
+          </Alert>
+        )}
+        
         {error && (
           <Alert severity="error" sx={{ mb: 3 }}>
             {error}
@@ -12,7 +12,7 @@ import {
   Divider,
   styled 
 } from '@mui/material';
-import { productApi, categoryApi } from '../services/api';
+import { homeApi } from '../services/api';
 import ProductCard from '../components/common/ProductCard';
 import LoadingSpinner from '../components/common/LoadingSpinner';
 
@@ -280,13 +280,10 @@ const HomePage = () => {
       try {
         setLoading(true);
         
-        // Fetch featured products
-        const productsResponse = await productApi.getFeaturedProducts();
-        setFeaturedProducts(productsResponse.data);
-        
-        // Fetch categories
-        const categoriesResponse = await categoryApi.getAllCategories();
-        setCategories(categoriesResponse.data);
+        // Featured products and categories in one request
+        const response = await homeApi.getHome();
+        setFeaturedProducts(response.data.featuredProducts);
+        setCategories(response.data.categories);
         
         setError(null);
       } catch (err) {
@@ -11,7 +11,7 @@ import {
   Avatar
 } from '@mui/material';
 import { Store, LocationOn, Phone, Email } from '@mui/icons-material';
-import { shopApi, productApi } from '../services/api';
+import { shopApi } from '../services/api';
 import ProductCard from '../components/common/ProductCard';
 import LoadingSpinner from '../components/common/LoadingSpinner';
 
@@ -26,13 +26,10 @@ const ShopDetailPage = () => {
     const fetchData = async () => {
       setLoading(true);
       try {
-        // Fetch shop details
-        const shopResponse = await shopApi.getShopById(id);
-        setShop(shopResponse.data);
-        
-        // Fetch shop products
-        const productsResponse = await productApi.getProductsByShop(id);
-        setProducts(productsResponse.data);
+        // Shop details and products in one request
+        const response = await shopApi.getStorefront(id);
+        setShop(response.data.shop);
+        setProducts(response.data.products);
       } catch (err) {
         console.error('Error fetching shop data:', err);
         setError('Failed to load shop information. Please try again later.');
@@ -18,40 +18,59 @@ import { shopApi } from '../services/api';
 import PageHero from '../components/common/PageHero';
 import LoadingSpinner from '../components/common/LoadingSpinner';
 
+const SHOPS_PAGE_SIZE = 24;
+
 const ShopsPage = () => {
   const [shops, setShops] = useState([]);
-  const [filteredShops, setFilteredShops] = useState([]);
   const [searchTerm, setSearchTerm] = useState('');
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
+  const [nextCursor, setNextCursor] = useState(null);
+  
+  const fetchShops = (after) =>
+    shopApi.getAllShops({ after, size: SHOPS_PAGE_SIZE, q: searchTerm.trim() || undefined });
   
+  const showPage = (response, append) => {
+    setShops(prev => (append ? [...prev, ...response.data] : response.data));
+    setNextCursor(response.headers['x-next-cursor'] || null);
+  };
+  
+  // The first page, and again whenever the search changes. The server does the matching,
+  // so shops beyond the pages loaded so far are found too.
   useEffect(() => {
-    const fetchShops = async () => {
-      setLoading(true);
+    let current = true;
+    const timer = setTimeout(async () => {
       try {
-        const response = await shopApi.getAllShops();
-        setShops(response.data);
-        setFilteredShops(response.data);
+        const response = await fetchShops();
+        if (current) {
+          showPage(response, false);
+        }
       } catch (error) {
         console.error('Error fetching shops:', error);
       } finally {
-        setLoading(false);
+        if (current) {
+          setLoading(false);
+        }
       }
-    };
+    }, searchTerm.trim() ? 300 : 0);
     
-    fetchShops();
-  }, []);
+    return () => {
+      current = false;
+      clearTimeout(timer);
+    };
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, [searchTerm]);
   
-  useEffect(() => {
-    if (searchTerm.trim() === '') {
-      setFilteredShops(shops);
-    } else {
-      const filtered = shops.filter(
-        shop => shop.name.toLowerCase().includes(searchTerm.toLowerCase()) ||
-                (shop.description && shop.description.toLowerCase().includes(searchTerm.toLowerCase()))
-      );
-      setFilteredShops(filtered);
+  const handleLoadMore = async () => {
+    setLoadingMore(true);
+    try {
+      showPage(await fetchShops(nextCursor), true);
+    } catch (error) {
+      console.error('Error fetching shops:', error);
+    } finally {
+      setLoadingMore(false);
     }
-  }, [searchTerm, shops]);
+  };
   
   const handleSearchChange = (e) => {
     setSearchTerm(e.target.value);
@@ -89,13 +108,13 @@ const ShopsPage = () => {
           
           <Divider sx={{ mb: 4 }} />
           
-          {filteredShops.length === 0 ? (
+          {shops.length === 0 ? (
             <Typography variant="body1" color="text.secondary" align="center" sx={{ py: 4 }}>
               No shops found matching your search.
             </Typography>
           ) : (
             <Grid container spacing={3}>
-              {filteredShops.map((shop) => (
+              {shops.map((shop) => (
                 <Grid item key={shop.id} xs={12} sm={6} md={4}>
                   <Card sx={{ 
                     height: '100%', 
@@ -154,6 +173,14 @@ const ShopsPage = () => {
               ))}
             </Grid>
           )}
+          
+          {nextCursor && (
+            <Box sx={{ display: 'flex', justifyContent: 'center', mt: 4 }}>
+              <Button variant="outlined" onClick={handleLoadMore} disabled={loadingMore}>
+                {loadingMore ? 'Loading...' : 'Load more shops'}
+              </Button>
+            </Box>
+          )}
         </Box>
       </Container>
     </div>
@@ -63,18 +63,25 @@ const withRetry = async (apiCall, retries = 3, delay = 1000) => {
 };
 
 
+// Properties the product grids (ProductCard) read; the backend skips the rest, including additional images
+const PRODUCT_CARD_FIELDS = 'name,description,price,imageUrl,featured,categoryName,shopName';
+
 export const productApi = {
   getAllProducts: () => {
     console.log('Calling getAllProducts');
-    return api.get('/products');
+    return api.get('/products', { params: { fields: PRODUCT_CARD_FIELDS } });
   },
   getFeaturedProducts: () => {
     console.log('Calling getFeaturedProducts');
     return api.get('/products/featured');
   },
   getProductById: (id) => api.get(`/products/${id}`),
-  getProductsByCategory: (categoryId) => api.get(`/products/category/${categoryId}`),
-  searchProducts: (keyword) => api.get(`/products/search?keyword=${keyword}`),
+  // Current name, price and stock for many products in one round trip; large carts POST the ids
+  getProductsBatch: (ids, fields = 'name,price,imageUrl,stockQuantity') => ids.length > 100
+    ? api.post('/products/batch', ids, { params: { fields } })
+    : api.get('/products/batch', { params: { ids: ids.join(','), fields } }),
+  getProductsByCategory: (categoryId) => api.get(`/products/category/${categoryId}`, { params: { fields: PRODUCT_CARD_FIELDS } }),
+  searchProducts: (keyword) => api.get(`/products/search?keyword=${keyword}`, { params: { fields: PRODUCT_CARD_FIELDS } }),
   getProductsByShop: (shopId) => withRetry(() => api.get(`/products/shop/${shopId}`)),
   createProduct: (productData) => api.post('/products', productData),
   updateProduct: (id, productData) => api.put(`/products/${id}`, productData),
@@ -195,8 +202,9 @@ export const paymentApi = {
 
 
 export const shopApi = {
-  getAllShops: () => api.get('/shops'),
+  getAllShops: (params = {}) => api.get('/shops', { params }),
   getShopById: (id) => api.get(`/shops/${id}`),
+  getStorefront: (id) => withRetry(() => api.get(`/shops/${id}/storefront`)),
   getMyShop: () => withRetry(() => api.get('/shops/my-shop')),
   createShop: (shopData) => {
     const token = localStorage.getItem('token');
@@ -239,7 +247,12 @@ export const shopApi = {
   }
 };
 
+export const homeApi = {
+  getHome: () => api.get('/home'),
+};
+
 export default {
+  home: homeApi,
   product: productApi,
   category: categoryApi,
   auth: authApi,